@@ -25,7 +25,9 @@ CREATE TABLE `message` (
   `userID` varchar(25) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
   `content` varchar(5000) DEFAULT NULL,
   `time` datetime DEFAULT NULL,
-  PRIMARY KEY (`messageID`)
+  PRIMARY KEY (`messageID`),
+  KEY `state_time` (`state`,`time`,`messageID`),
+  KEY `userID_time` (`userID`,`time`,`messageID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=25 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
@@ -52,7 +54,8 @@ CREATE TABLE `news` (
   `title` varchar(100) CHARACTER SET utf8 COLLATE utf8_general_ci DEFAULT NULL,
   `content` varchar(5000) DEFAULT NULL,
   `time` datetime(6) DEFAULT NULL,
-  PRIMARY KEY (`newsID`)
+  PRIMARY KEY (`newsID`),
+  KEY `time` (`time`,`newsID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=16 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
@@ -75,25 +78,141 @@ CREATE TABLE `order` (
   `hours` int(2) DEFAULT NULL,
   `state` int(1) DEFAULT NULL,
   `total` int(5) DEFAULT NULL,
+  `seriesID` varchar(36) DEFAULT NULL,
   PRIMARY KEY (`orderID`),
   KEY `userID` (`userID`),
-  KEY `gymID` (`venueID`)
+  KEY `gymID` (`venueID`),
+  KEY `state_start_time` (`state`,`start_time`),
+  KEY `seriesID` (`seriesID`),
+  KEY `state_order_time` (`state`,`order_time`,`orderID`),
+  KEY `userID_order_time` (`userID`,`order_time`,`orderID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=31 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
 -- Records of order
 -- ----------------------------
-INSERT INTO `order` VALUES ('1', 'test', '2', '2020-01-02 17:24:01', '2020-01-20 15:00:00', '3', '2', '600');
-INSERT INTO `order` VALUES ('12', 'test', '16', '2020-01-02 17:23:46', '2020-01-17 12:00:00', '5', '2', '2500');
-INSERT INTO `order` VALUES ('13', 'test', '18', '2020-01-02 17:23:35', '2020-01-08 15:00:00', '4', '2', '4000');
-INSERT INTO `order` VALUES ('14', 'test', '2', '2020-01-02 17:40:12', '2020-01-17 09:00:00', '3', '2', '600');
-INSERT INTO `order` VALUES ('15', 'test11', '16', '2020-01-02 17:42:02', '2020-01-14 09:00:00', '5', '4', '2500');
-INSERT INTO `order` VALUES ('16', 'test11', '21', '2020-01-02 17:42:19', '2020-01-24 14:00:00', '5', '2', '3500');
-INSERT INTO `order` VALUES ('19', 'yonghuming', '16', '2020-01-02 17:51:47', '2020-01-22 10:00:00', '6', '4', '3000');
-INSERT INTO `order` VALUES ('20', 'yonghuming', '18', '2020-01-02 17:52:04', '2020-01-27 14:00:00', '3', '2', '3000');
-INSERT INTO `order` VALUES ('21', 'yonghuming', '16', '2020-01-02 17:52:21', '2020-01-18 11:00:00', '4', '2', '2000');
-INSERT INTO `order` VALUES ('29', 'yonghu', '16', '2020-01-02 18:16:08', '2020-01-24 11:00:00', '3', '2', '1500');
-INSERT INTO `order` VALUES ('30', 'yonghu', '17', '2020-01-02 18:16:21', '2020-01-25 11:00:00', '3', '2', '900');
+INSERT INTO `order` VALUES ('1', 'test', '2', '2020-01-02 17:24:01', '2020-01-20 15:00:00', '3', '2', '600', NULL);
+INSERT INTO `order` VALUES ('12', 'test', '16', '2020-01-02 17:23:46', '2020-01-17 12:00:00', '5', '2', '2500', NULL);
+INSERT INTO `order` VALUES ('13', 'test', '18', '2020-01-02 17:23:35', '2020-01-08 15:00:00', '4', '2', '4000', NULL);
+INSERT INTO `order` VALUES ('14', 'test', '2', '2020-01-02 17:40:12', '2020-01-17 09:00:00', '3', '2', '600', NULL);
+INSERT INTO `order` VALUES ('15', 'test11', '16', '2020-01-02 17:42:02', '2020-01-14 09:00:00', '5', '4', '2500', NULL);
+INSERT INTO `order` VALUES ('16', 'test11', '21', '2020-01-02 17:42:19', '2020-01-24 14:00:00', '5', '2', '3500', NULL);
+INSERT INTO `order` VALUES ('19', 'yonghuming', '16', '2020-01-02 17:51:47', '2020-01-22 10:00:00', '6', '4', '3000', NULL);
+INSERT INTO `order` VALUES ('20', 'yonghuming', '18', '2020-01-02 17:52:04', '2020-01-27 14:00:00', '3', '2', '3000', NULL);
+INSERT INTO `order` VALUES ('21', 'yonghuming', '16', '2020-01-02 17:52:21', '2020-01-18 11:00:00', '4', '2', '2000', NULL);
+INSERT INTO `order` VALUES ('29', 'yonghu', '16', '2020-01-02 18:16:08', '2020-01-24 11:00:00', '3', '2', '1500', NULL);
+INSERT INTO `order` VALUES ('30', 'yonghu', '17', '2020-01-02 18:16:21', '2020-01-25 11:00:00', '3', '2', '900', NULL);
+
+-- ----------------------------
+-- Table structure for lottery
+-- ----------------------------
+DROP TABLE IF EXISTS `lottery`;
+CREATE TABLE `lottery` (
+  `lotteryID` int(11) NOT NULL AUTO_INCREMENT,
+  `venueID` int(11) NOT NULL,
+  `slot_from` datetime NOT NULL,
+  `slot_to` datetime NOT NULL,
+  `close_time` datetime NOT NULL,
+  `state` int(1) NOT NULL,
+  `seed` bigint(20) NOT NULL,
+  `draw_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`lotteryID`),
+  KEY `state_close_time` (`state`,`close_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for lottery_bid
+-- ----------------------------
+DROP TABLE IF EXISTS `lottery_bid`;
+CREATE TABLE `lottery_bid` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `lotteryID` int(11) NOT NULL,
+  `userID` varchar(25) NOT NULL,
+  `choice` int(1) NOT NULL,
+  `start_time` datetime NOT NULL,
+  `hours` int(2) NOT NULL,
+  `orderID` int(11) DEFAULT NULL,
+  `create_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `lottery_user_choice` (`lotteryID`,`userID`,`choice`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for order_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS `order_rollup`;
+CREATE TABLE `order_rollup` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `venueID` int(11) NOT NULL,
+  `day` date NOT NULL,
+  `state` int(11) NOT NULL,
+  `bookings` int(11) NOT NULL DEFAULT '0',
+  `hours` int(11) NOT NULL DEFAULT '0',
+  `revenue` bigint(20) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `venue_day_state` (`venueID`,`day`,`state`),
+  KEY `day` (`day`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for order_history
+-- ----------------------------
+DROP TABLE IF EXISTS `order_history`;
+CREATE TABLE `order_history` (
+  `orderID` int(11) NOT NULL,
+  `userID` varchar(25) NOT NULL,
+  `venueID` int(11) NOT NULL,
+  `order_time` datetime DEFAULT NULL,
+  `start_time` datetime DEFAULT NULL,
+  `hours` int(2) DEFAULT NULL,
+  `state` int(1) DEFAULT NULL,
+  `total` int(5) DEFAULT NULL,
+  `seriesID` varchar(36) DEFAULT NULL,
+  `archived_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`orderID`),
+  KEY `venue_start_time` (`venueID`,`start_time`),
+  KEY `userID_order_time` (`userID`,`order_time`,`orderID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for order_slot
+-- ----------------------------
+DROP TABLE IF EXISTS `order_slot`;
+CREATE TABLE `order_slot` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `orderID` int(11) NOT NULL,
+  `venueID` int(11) NOT NULL,
+  `slot_start` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `order_slot` (`orderID`,`slot_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for slot_usage
+-- ----------------------------
+DROP TABLE IF EXISTS `slot_usage`;
+CREATE TABLE `slot_usage` (
+  `venueID` int(11) NOT NULL,
+  `slot_start` datetime NOT NULL,
+  `used` int(11) NOT NULL DEFAULT '0',
+  PRIMARY KEY (`venueID`,`slot_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- ----------------------------
+-- Table structure for waitlist
+-- ----------------------------
+DROP TABLE IF EXISTS `waitlist`;
+CREATE TABLE `waitlist` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `userID` varchar(25) NOT NULL,
+  `venueID` int(11) NOT NULL,
+  `start_time` datetime NOT NULL,
+  `hours` int(2) NOT NULL,
+  `create_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `venue_start_time` (`venueID`,`start_time`),
+  KEY `userID` (`userID`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
 
 -- ----------------------------
 -- Table structure for user
@@ -108,7 +227,8 @@ CREATE TABLE `user` (
   `isadmin` int(10) NOT NULL,
   `user_name` varchar(255) DEFAULT NULL,
   `picture` varchar(255) DEFAULT NULL,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `userID` (`userID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=28 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
@@ -135,15 +255,16 @@ CREATE TABLE `venue` (
   `address` varchar(255) DEFAULT NULL,
   `close_time` varchar(255) DEFAULT NULL,
   `open_time` varchar(255) DEFAULT NULL,
+  `capacity` int(3) NOT NULL DEFAULT '1',
   PRIMARY KEY (`venueID`)
 ) ENGINE=InnoDB AUTO_INCREMENT=29 DEFAULT CHARSET=utf8;
 
 -- ----------------------------
 -- Records of venue
 -- ----------------------------
-INSERT INTO `venue` VALUES ('2', ' 该场馆是是中国华东地区举办体育项目的专业平台，是保障正常教学、训练和学校大型活动的顺利进行，服务师生健身和文体娱乐的服务性设施。运动条件优越，能承担各种大型的运动比赛。', '200', '', '2222', '上海市杨浦区区XX路123号', '20:00', '09:00 ');
-INSERT INTO `venue` VALUES ('16', ' 可根据使用需求进行多种布置，舞台、主席台可灵活设置，具有很高的综合使用性能。馆内日常布置1片标准篮球场，14片羽毛球场，8张乒乓球桌。体育馆共设有固定座位6785座，其中一楼960座，二楼看台2437座，三楼3388座。\r\n\r\n   体育馆穹顶采用轮辐式张拉梁结构，屋盖跨度100米，馆内配备有专用运动木地板、中央空调、高清LED大屏、视频监控、自动消防系统，灯光音响的设置标准满 足比赛现场直播的要求，体育馆荣获“中国钢结构金刚奖”和“建设工程鲁班奖”两个建设工程领域国家级奖项。', '500', '', '场馆2', '上海市黄浦区', '18:00', '09:00 ');
-INSERT INTO `venue` VALUES ('17', ' 体育馆占地面积达13900平方米，总建筑面积达23950平方米，地下1层，地上1-3层，最大高度达27.87米。体育馆的切平面是一个82.4米*96米的矩形，整个屋面外形为独特的反对称折面，采用门式钢架结构，跨度为82.4米。主馆比赛场地为南北70米，东西40米，并设计座席8724个（其中固定座席6051个，活动座席2673个），室内空间非常宽敞。馆顶安装了400多块高低错落的玻璃窗，利用自然采光原理，按照太阳运行规律，使主体馆内形成了效果极佳的自然采光和通风效果。副馆部分由羽毛球场地和数个功能房间构成，馆内设置了2套空调系统，运用热回收空调技术，室内空气净化技术，空调采暖加湿、除湿和控制技术，直燃型溴化锂机组等多项科技创新技术的绿色高效节能空调。另外馆内淋浴使用的是地下温泉热水。场馆内部各功能分区流线清晰，比赛场区声控、灯光设备齐全，处于国际先进水平，馆内外空间富裕。\r\n\r\n     体育馆自投入使用以来，坚持科学管理、优质服务，成功举办了好运北京、奥运会、残奥会赛事，得到了国际奥委会赞许，被誉为是奥运会摔跤项目有史以来最完美的一届。同时也得到了全校师生及社会各界的热心关注和大力支持，各项工作有序进行，为学校的体育教学、艺术团体训练、文化展览、各类大型活动以体育比赛的开展发挥着积极的作用。    ', '300', '', '场馆3', '上海市松江区', '17:00', '09:00 ');
-INSERT INTO `venue` VALUES ('18', ' 可根据使用需求进行多种布置，舞台、主席台可灵活设置，具有很高的综合使用性能。馆内日常布置1片标准篮球场，14片羽毛球场，8张乒乓球桌。体育馆共设有固定座位6785座，其中一楼960座，二楼看台2437座，三楼3388座。\r\n\r\n   体育馆穹顶采用轮辐式张拉梁结构，屋盖跨度100米，馆内配备有专用运动木地板、中央空调、高清LED大屏、视频监控、自动消防系统，灯光音响的设置标准满 足比赛现场直播的要求，体育馆荣获“中国钢结构金刚奖”和“建设工程鲁班奖”两个建设工程领域国家级奖项。', '1000', '', '场馆4', '上海市静安区', '20:00', '09:00 ');
-INSERT INTO `venue` VALUES ('20', '体育中心占地面积 30.87万平方米，总建筑面积23.83万平方米，由两场两馆组成（即体育场，网球场，体育馆，游泳场馆）； 下设综合管理部、游泳场馆管理部、体育馆管理部、体育场管理部，等四个部门。', '800', '', '场馆5', '上海市杨浦区', '22:00', '08:00 ');
-INSERT INTO `venue` VALUES ('21', ' 综合训练馆是体育教学、运动训练基地，总建筑面积1.2万平方米，高度23米，屋盖为钢结构网架。室内运动 场地面积约1万平方米，馆内场地可根据使用需求进行多种布置，具有很高的综合使用性能。馆内主运动场地长153米，宽56米，日常布置3片配备专业运动木 地板的篮球场、2片塑胶五人制足球场，21片塑胶地面羽毛球场，40张乒乓球桌。馆内其他功能房间还设有1个健身室，1个体操健美操室、2个壁球室，8个 室内高尔夫教学间、1个瑜伽室、1个体育教室和多间教学办公辅助用房。', '700', '', '场馆6', '上海市浦东新区', '20:00', '08:00 ');
+INSERT INTO `venue` VALUES ('2', ' 该场馆是是中国华东地区举办体育项目的专业平台，是保障正常教学、训练和学校大型活动的顺利进行，服务师生健身和文体娱乐的服务性设施。运动条件优越，能承担各种大型的运动比赛。', '200', '', '2222', '上海市杨浦区区XX路123号', '20:00', '09:00 ', '1');
+INSERT INTO `venue` VALUES ('16', ' 可根据使用需求进行多种布置，舞台、主席台可灵活设置，具有很高的综合使用性能。馆内日常布置1片标准篮球场，14片羽毛球场，8张乒乓球桌。体育馆共设有固定座位6785座，其中一楼960座，二楼看台2437座，三楼3388座。\r\n\r\n   体育馆穹顶采用轮辐式张拉梁结构，屋盖跨度100米，馆内配备有专用运动木地板、中央空调、高清LED大屏、视频监控、自动消防系统，灯光音响的设置标准满 足比赛现场直播的要求，体育馆荣获“中国钢结构金刚奖”和“建设工程鲁班奖”两个建设工程领域国家级奖项。', '500', '', '场馆2', '上海市黄浦区', '18:00', '09:00 ', '1');
+INSERT INTO `venue` VALUES ('17', ' 体育馆占地面积达13900平方米，总建筑面积达23950平方米，地下1层，地上1-3层，最大高度达27.87米。体育馆的切平面是一个82.4米*96米的矩形，整个屋面外形为独特的反对称折面，采用门式钢架结构，跨度为82.4米。主馆比赛场地为南北70米，东西40米，并设计座席8724个（其中固定座席6051个，活动座席2673个），室内空间非常宽敞。馆顶安装了400多块高低错落的玻璃窗，利用自然采光原理，按照太阳运行规律，使主体馆内形成了效果极佳的自然采光和通风效果。副馆部分由羽毛球场地和数个功能房间构成，馆内设置了2套空调系统，运用热回收空调技术，室内空气净化技术，空调采暖加湿、除湿和控制技术，直燃型溴化锂机组等多项科技创新技术的绿色高效节能空调。另外馆内淋浴使用的是地下温泉热水。场馆内部各功能分区流线清晰，比赛场区声控、灯光设备齐全，处于国际先进水平，馆内外空间富裕。\r\n\r\n     体育馆自投入使用以来，坚持科学管理、优质服务，成功举办了好运北京、奥运会、残奥会赛事，得到了国际奥委会赞许，被誉为是奥运会摔跤项目有史以来最完美的一届。同时也得到了全校师生及社会各界的热心关注和大力支持，各项工作有序进行，为学校的体育教学、艺术团体训练、文化展览、各类大型活动以体育比赛的开展发挥着积极的作用。    ', '300', '', '场馆3', '上海市松江区', '17:00', '09:00 ', '1');
+INSERT INTO `venue` VALUES ('18', ' 可根据使用需求进行多种布置，舞台、主席台可灵活设置，具有很高的综合使用性能。馆内日常布置1片标准篮球场，14片羽毛球场，8张乒乓球桌。体育馆共设有固定座位6785座，其中一楼960座，二楼看台2437座，三楼3388座。\r\n\r\n   体育馆穹顶采用轮辐式张拉梁结构，屋盖跨度100米，馆内配备有专用运动木地板、中央空调、高清LED大屏、视频监控、自动消防系统，灯光音响的设置标准满 足比赛现场直播的要求，体育馆荣获“中国钢结构金刚奖”和“建设工程鲁班奖”两个建设工程领域国家级奖项。', '1000', '', '场馆4', '上海市静安区', '20:00', '09:00 ', '1');
+INSERT INTO `venue` VALUES ('20', '体育中心占地面积 30.87万平方米，总建筑面积23.83万平方米，由两场两馆组成（即体育场，网球场，体育馆，游泳场馆）； 下设综合管理部、游泳场馆管理部、体育馆管理部、体育场管理部，等四个部门。', '800', '', '场馆5', '上海市杨浦区', '22:00', '08:00 ', '1');
+INSERT INTO `venue` VALUES ('21', ' 综合训练馆是体育教学、运动训练基地，总建筑面积1.2万平方米，高度23米，屋盖为钢结构网架。室内运动 场地面积约1万平方米，馆内场地可根据使用需求进行多种布置，具有很高的综合使用性能。馆内主运动场地长153米，宽56米，日常布置3片配备专业运动木 地板的篮球场、2片塑胶五人制足球场，21片塑胶地面羽毛球场，40张乒乓球桌。馆内其他功能房间还设有1个健身室，1个体操健美操室、2个壁球室，8个 室内高尔夫教学间、1个瑜伽室、1个体育教室和多间教学办公辅助用房。', '700', '', '场馆6', '上海市浦东新区', '20:00', '08:00 ', '1');
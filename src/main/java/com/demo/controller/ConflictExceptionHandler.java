@@ -0,0 +1,59 @@
+package com.demo.controller;
+
+import com.demo.entity.vo.SlotAlternative;
+import com.demo.entity.vo.SlotConflictVo;
+import com.demo.exception.SlotConflictException;
+import com.demo.exception.StateConflictException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 时段冲突和状态冲突统一返回409和提示信息, 无效的请求参数(如篡改或过期的分页游标)返回400
+ */
+@ControllerAdvice
+public class ConflictExceptionHandler {
+
+    private static final MediaType TEXT_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /**
+     * 请求接受JSON时返回提示和推荐时段, 否则(表单提交)返回文本, 推荐时段逐行列出
+     */
+    @ExceptionHandler(SlotConflictException.class)
+    public ResponseEntity<?> slotConflict(SlotConflictException e, HttpServletRequest request){
+        String accept=request.getHeader(HttpHeaders.ACCEPT);
+        if(accept!=null && accept.contains(MediaType.APPLICATION_JSON_VALUE)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON)
+                    .body(new SlotConflictVo(e.getMessage(),e.getAlternatives()));
+        }
+        StringBuilder body=new StringBuilder(e.getMessage());
+        if(!e.getAlternatives().isEmpty()) {
+            body.append("\n可选时段:");
+            for(SlotAlternative alternative:e.getAlternatives()) {
+                body.append("\n").append(alternative.getVenueName()).append(' ')
+                        .append(alternative.getStartTime().format(TIME)).append(' ')
+                        .append(alternative.getHours()).append("小时 ￥").append(alternative.getTotal());
+            }
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(TEXT_UTF8).body(body.toString());
+    }
+
+    @ExceptionHandler(StateConflictException.class)
+    public ResponseEntity<String> stateConflict(StateConflictException e){
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(TEXT_UTF8).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badArgument(IllegalArgumentException e){
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(TEXT_UTF8).body(e.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+package com.demo.controller.admin;
+
+import com.demo.service.AdmissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 开放预约模式的开关, 放出新一周时段前开启, 高峰过后关闭
+ */
+@Controller
+public class AdminAdmissionController {
+    @Autowired
+    private AdmissionService admissionService;
+
+    @GetMapping("/admin/getOpeningMode.do")
+    @ResponseBody
+    public Map<String,Object> getOpeningMode() {
+        Map<String,Object> result=new HashMap<>();
+        result.put("open",admissionService.isOpen());
+        result.put("queued",admissionService.queued());
+        return result;
+    }
+
+    @PostMapping("/admin/setOpeningMode.do")
+    @ResponseBody
+    public boolean setOpeningMode(boolean open) {
+        admissionService.setOpen(open);
+        return true;
+    }
+}
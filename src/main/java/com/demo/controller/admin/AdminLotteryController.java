@@ -0,0 +1,47 @@
+package com.demo.controller.admin;
+
+import com.demo.entity.Lottery;
+import com.demo.service.LotteryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 热门时段改为抽签分配
+ */
+@Controller
+public class AdminLotteryController {
+    @Autowired
+    private LotteryService lotteryService;
+
+    /**
+     * 开设抽签
+     * @param venueID
+     * @param slotFrom 抽签时段开始 yyyy-MM-dd HH:mm
+     * @param slotTo 抽签时段结束, 不包含
+     * @param closeTime 志愿截止时间, 截止后自动开奖
+     * @return
+     */
+    @PostMapping("/admin/addLottery.do")
+    @ResponseBody
+    public Lottery addLottery(int venueID, String slotFrom, String slotTo, String closeTime) {
+        DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        return lotteryService.create(venueID,LocalDateTime.parse(slotFrom,df),LocalDateTime.parse(slotTo,df),
+                LocalDateTime.parse(closeTime,df));
+    }
+
+    /**
+     * 立即开奖
+     * @param lotteryID
+     * @return 中签的订单数
+     */
+    @PostMapping("/admin/drawLottery.do")
+    @ResponseBody
+    public int drawLottery(int lotteryID) {
+        return lotteryService.draw(lotteryID);
+    }
+}
@@ -1,9 +1,11 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.Message;
+import com.demo.entity.vo.CursorPage;
 import com.demo.entity.vo.MessageVo;
 import com.demo.service.MessageService;
 import com.demo.service.MessageVoService;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -41,6 +43,19 @@ public class AdminMessageController {
         return messageVoService.returnVo(messages);
     }
 
+    /**
+     * 游标分页查看待审核留言, 第一页不传cursor
+     * @param cursor 上一页返回的next
+     * @return
+     */
+    @GetMapping("/messageListSeek.do")
+    @ResponseBody
+    public CursorPage<MessageVo> messageListSeek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<Message> messages=messageService.findWaitStateSeek(from.getTime(),from.getId(),11);
+        return CursorPage.of(messages,10,m->PageCursor.encode(m.getTime(),m.getMessageID()),messageVoService::returnVo);
+    }
+
     @PostMapping("/passMessage.do")
     @ResponseBody
     public boolean passMessage(int messageID){
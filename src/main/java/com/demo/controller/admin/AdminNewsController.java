@@ -1,7 +1,9 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.News;
+import com.demo.entity.vo.CursorPage;
 import com.demo.service.NewsService;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -49,6 +51,19 @@ public class AdminNewsController {
         return news.getContent();
     }
 
+    /**
+     * 游标分页查看新闻, 第一页不传cursor
+     * @param cursor 上一页返回的next
+     * @return
+     */
+    @RequestMapping("/newsListSeek.do")
+    @ResponseBody
+    public CursorPage<News> newsListSeek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<News> news=newsService.findSeek(from.getTime(),from.getId(),11);
+        return CursorPage.of(news,10,n->PageCursor.encode(n.getTime(),n.getNewsID()),list->list);
+    }
+
     @PostMapping("/delNews.do")
     @ResponseBody
     public boolean delNews(int newsID){
@@ -1,9 +1,14 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.Order;
+import com.demo.entity.vo.CursorPage;
 import com.demo.entity.vo.OrderVo;
+import com.demo.entity.vo.SweepStats;
+import com.demo.service.OrderArchiveService;
 import com.demo.service.OrderService;
+import com.demo.service.OrderSweepService;
 import com.demo.service.OrderVoService;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,7 +20,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class AdminOrderController {
@@ -23,14 +31,16 @@ public class AdminOrderController {
     private OrderService orderService;
     @Autowired
     private OrderVoService orderVoService;
+    @Autowired
+    private OrderSweepService orderSweepService;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
 
     @GetMapping("/reservation_manage")
     public String reservation_manage(Model model){
-        List<Order> orders= orderService.findAuditOrder();
-        List<OrderVo> orderVos=orderVoService.returnVo(orders);
         Pageable order_pageable= PageRequest.of(0,10, Sort.by("orderTime").descending());
-        model.addAttribute("order_list",orderVos);
         model.addAttribute("total",orderService.findNoAuditOrder(order_pageable).getTotalPages());
+        model.addAttribute("audit_total",orderService.findAuditOrder(order_pageable).getTotalPages());
 
         return "admin/reservation_manage";
     }
@@ -48,6 +58,32 @@ public class AdminOrderController {
         return orderVoService.returnVo(orders);
     }
 
+    /**
+     * 管理员分页查看已审核的订单
+     * @param page
+     * @return
+     */
+    @GetMapping("/admin/getAuditOrderList.do")
+    @ResponseBody
+    public List<OrderVo> getAuditOrder(@RequestParam(value = "page",defaultValue = "1")int page){
+        Pageable order_pageable= PageRequest.of(page-1,10, Sort.by("orderTime").descending());
+        List<Order> orders=orderService.findAuditOrder(order_pageable).getContent();
+        return orderVoService.returnVo(orders);
+    }
+
+    /**
+     * 管理员游标分页查看未审核订单, 第一页不传cursor
+     * @param cursor 上一页返回的next
+     * @return
+     */
+    @GetMapping("/admin/getOrderListSeek.do")
+    @ResponseBody
+    public CursorPage<OrderVo> getNoAuditOrderSeek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<Order> orders=orderService.findNoAuditOrderSeek(from.getTime(),from.getId(),11);
+        return CursorPage.of(orders,10,o->PageCursor.encode(o.getOrderTime(),o.getOrderID()),orderVoService::returnVo);
+    }
+
     @PostMapping("/passOrder.do")
     @ResponseBody
     public boolean confirmOrder(int orderID) {
@@ -61,4 +97,70 @@ public class AdminOrderController {
         orderService.rejectOrder(orderID);
         return true;
     }
+
+    /**
+     * 批量通过, 可以传订单ID列表, 也可以按场馆和日期选中当天全部未审核订单
+     * @return 订单ID -> 处理结果
+     */
+    @PostMapping("/passOrders.do")
+    @ResponseBody
+    public Map<Integer,String> confirmOrders(@RequestParam(value = "orderIDs",required = false) List<Integer> orderIDs,
+                                             @RequestParam(value = "venueID",required = false) Integer venueID,
+                                             @RequestParam(value = "date",required = false) String date) {
+        return orderService.confirmOrders(resolveOrderIDs(orderIDs,venueID,date));
+    }
+
+    @PostMapping("/rejectOrders.do")
+    @ResponseBody
+    public Map<Integer,String> rejectOrders(@RequestParam(value = "orderIDs",required = false) List<Integer> orderIDs,
+                                            @RequestParam(value = "venueID",required = false) Integer venueID,
+                                            @RequestParam(value = "date",required = false) String date) {
+        return orderService.rejectOrders(resolveOrderIDs(orderIDs,venueID,date));
+    }
+
+    /**
+     * 周期预约整个系列一次通过或驳回
+     * @return 订单ID -> 处理结果
+     */
+    @PostMapping("/passSeries.do")
+    @ResponseBody
+    public Map<Integer,String> confirmSeries(String seriesID) {
+        return orderService.confirmSeries(seriesID);
+    }
+
+    @PostMapping("/rejectSeries.do")
+    @ResponseBody
+    public Map<Integer,String> rejectSeries(String seriesID) {
+        return orderService.rejectSeries(seriesID);
+    }
+
+    /**
+     * 过期订单清理的累计处理数和耗时
+     * @return
+     */
+    @GetMapping("/admin/getSweepStats.do")
+    @ResponseBody
+    public SweepStats getSweepStats() {
+        return orderSweepService.getStats();
+    }
+
+    /**
+     * 立即归档超过期限的历史订单, 平时由定时任务在凌晨执行
+     * @return 归档的订单数
+     */
+    @PostMapping("/admin/archiveOrders.do")
+    @ResponseBody
+    public int archiveOrders() {
+        return orderArchiveService.archive();
+    }
+
+    private List<Integer> resolveOrderIDs(List<Integer> orderIDs, Integer venueID, String date) {
+        if(orderIDs != null && !orderIDs.isEmpty()) {
+            return orderIDs;
+        }
+        if(venueID != null && date != null) {
+            return orderService.findNoAuditOrderID(venueID, LocalDate.parse(date));
+        }
+        return Collections.emptyList();
+    }
 }
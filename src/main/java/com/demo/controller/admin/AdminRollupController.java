@@ -0,0 +1,70 @@
+package com.demo.controller.admin;
+
+import com.demo.entity.vo.VenueRollup;
+import com.demo.service.OrderRollupService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 场馆预约汇总, 只读汇总表, 不扫描订单表
+ */
+@Controller
+public class AdminRollupController {
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    /**
+     * 按天汇总
+     * @param venueID 不传表示全部场馆
+     * @param from 起始日期 yyyy-MM-dd
+     * @param to 结束日期 yyyy-MM-dd, 包含当天
+     * @param states 计入的订单状态, 默认已审核和已完成
+     * @return
+     */
+    @GetMapping("/admin/getDailyRollup.do")
+    @ResponseBody
+    public List<VenueRollup> getDailyRollup(@RequestParam(value = "venueID",defaultValue = "0") int venueID,
+                                            @RequestParam("from") String from,
+                                            @RequestParam("to") String to,
+                                            @RequestParam(value = "states",required = false) List<Integer> states) {
+        return orderRollupService.findDaily(venueID,LocalDate.parse(from),LocalDate.parse(to),resolveStates(states));
+    }
+
+    /**
+     * 按月汇总, 参数同按天汇总
+     */
+    @GetMapping("/admin/getMonthlyRollup.do")
+    @ResponseBody
+    public List<VenueRollup> getMonthlyRollup(@RequestParam(value = "venueID",defaultValue = "0") int venueID,
+                                              @RequestParam("from") String from,
+                                              @RequestParam("to") String to,
+                                              @RequestParam(value = "states",required = false) List<Integer> states) {
+        return orderRollupService.findMonthly(venueID,LocalDate.parse(from),LocalDate.parse(to),resolveStates(states));
+    }
+
+    /**
+     * 从订单表重建全部汇总, 用于首次上线或数据修复, 建议在低峰期执行
+     * @return 重建的场馆数
+     */
+    @PostMapping("/admin/rebuildRollup.do")
+    @ResponseBody
+    public int rebuildRollup() {
+        return orderRollupService.rebuild();
+    }
+
+    private List<Integer> resolveStates(List<Integer> states) {
+        if(states == null || states.isEmpty()) {
+            return Arrays.asList(OrderService.STATE_WAIT,OrderService.STATE_FINISH);
+        }
+        return states;
+    }
+}
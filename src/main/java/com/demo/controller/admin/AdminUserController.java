@@ -1,7 +1,9 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.User;
+import com.demo.entity.vo.CursorPage;
 import com.demo.service.UserService;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -47,6 +49,19 @@ public class AdminUserController {
     }
 
 
+    /**
+     * 游标分页查看用户, 第一页不传cursor
+     * @param cursor 上一页返回的next
+     * @return
+     */
+    @GetMapping("/userListSeek.do")
+    @ResponseBody
+    public CursorPage<User> userListSeek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,false);
+        List<User> users=userService.findByUserIDSeek(from.getId(),11);
+        return CursorPage.of(users,10,u->PageCursor.encode(u.getId()),list->list);
+    }
+
     @GetMapping("/user_edit")
     public String user_edit(Model model,int id){
         User user=userService.findById(id);
@@ -1,8 +1,10 @@
 package com.demo.controller.admin;
 
 import com.demo.entity.Venue;
+import com.demo.entity.vo.CursorPage;
 import com.demo.service.VenueService;
 import com.demo.utils.FileUtil;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -51,10 +53,24 @@ public class AdminVenueController {
 
     }
 
+    /**
+     * 游标分页查看场馆, 第一页不传cursor
+     * @param cursor 上一页返回的next
+     * @return
+     */
+    @GetMapping("/venueListSeek.do")
+    @ResponseBody
+    public CursorPage<Venue> getVenueListSeek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,false);
+        List<Venue> venues=venueService.findSeek(from.getId(),11);
+        return CursorPage.of(venues,10,v->PageCursor.encode(v.getVenueID()),list->list);
+    }
+
     @PostMapping("/addVenue.do")
     @ResponseBody
     public void addVenue(String venueName, String address, String description,
-                         int price, MultipartFile picture, String open_time,String close_time,HttpServletRequest request,
+                         int price, MultipartFile picture, String open_time,String close_time,
+                         @RequestParam(value = "capacity",defaultValue = "1") int capacity,HttpServletRequest request,
                          HttpServletResponse response) throws Exception {
         Venue venue=new Venue();
         venue.setVenueName(venueName);
@@ -63,6 +79,7 @@ public class AdminVenueController {
         venue.setPrice(price);
         venue.setOpen_time(open_time);
         venue.setClose_time(close_time);
+        venue.setCapacity(Math.max(1,capacity));
 
         if(!Objects.equals(picture.getOriginalFilename(), "")){
             venue.setPicture(FileUtil.saveVenueFile(picture));
@@ -82,9 +99,14 @@ public class AdminVenueController {
     @PostMapping("/modifyVenue.do")
     @ResponseBody
     public void modifyVenue(int venueID,String venueName, String address, String description,
-                            int price, MultipartFile picture, String open_time,String close_time,HttpServletRequest request,
+                            int price, MultipartFile picture, String open_time,String close_time,
+                            @RequestParam(value = "capacity",defaultValue = "1") int capacity,HttpServletRequest request,
                             HttpServletResponse response) throws Exception {
         Venue venue=venueService.findByVenueID(venueID);
+        int booked=venueService.findMaxBooked(venueID);
+        if(capacity<booked) {
+            throw new RuntimeException("已有时段预约了"+booked+"块场地，容量不能小于"+booked);
+        }
         venue.setVenueName(venueName);
         venue.setAddress(address);
         venue.setDescription(description);
@@ -94,6 +116,7 @@ public class AdminVenueController {
         }
         venue.setOpen_time(open_time);
         venue.setClose_time(close_time);
+        venue.setCapacity(Math.max(1,capacity));
         venueService.update(venue);
         response.sendRedirect("venue_manage");
     }
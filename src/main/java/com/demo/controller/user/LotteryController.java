@@ -0,0 +1,74 @@
+package com.demo.controller.user;
+
+import com.demo.entity.Lottery;
+import com.demo.entity.LotteryBid;
+import com.demo.entity.User;
+import com.demo.exception.LoginException;
+import com.demo.service.LotteryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+@Controller
+public class LotteryController {
+    @Autowired
+    private LotteryService lotteryService;
+
+    /**
+     * 场馆正在收集志愿的抽签
+     * @param venueID
+     * @return
+     */
+    @GetMapping("/lottery/getLotteries.do")
+    @ResponseBody
+    public List<Lottery> getLotteries(int venueID) {
+        return lotteryService.findOpen(venueID);
+    }
+
+    /**
+     * 提交志愿, 覆盖之前提交的
+     * @param lotteryID
+     * @param startTimes 按优先级排列的候选开始时间 yyyy-MM-dd HH:mm
+     * @param hours
+     * @return
+     */
+    @PostMapping("/lottery/bid.do")
+    @ResponseBody
+    public List<LotteryBid> bid(int lotteryID, @RequestParam("startTimes") List<String> startTimes, int hours,
+                                HttpServletRequest request) {
+        DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        List<LocalDateTime> starts=new ArrayList<>();
+        for(String startTime:startTimes) {
+            starts.add(LocalDateTime.parse(startTime,df));
+        }
+        return lotteryService.bid(lotteryID,loginUser(request).getUserID(),starts,hours);
+    }
+
+    /**
+     * 我的志愿, 开奖后中签的志愿带有orderID
+     * @param lotteryID
+     * @return
+     */
+    @GetMapping("/lottery/getBids.do")
+    @ResponseBody
+    public List<LotteryBid> getBids(int lotteryID, HttpServletRequest request) {
+        return lotteryService.findBids(lotteryID,loginUser(request).getUserID());
+    }
+
+    private User loginUser(HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        return (User)user;
+    }
+}
@@ -2,10 +2,13 @@ package com.demo.controller.user;
 
 import com.demo.entity.Message;
 import com.demo.entity.User;
+import com.demo.entity.vo.CursorPage;
 import com.demo.entity.vo.MessageVo;
+import com.demo.service.IdempotencyService;
 import com.demo.service.MessageService;
 import com.demo.service.MessageVoService;
 import com.demo.exception.LoginException;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +30,8 @@ public class MessageController {
     private MessageService messageService;
     @Autowired
     private MessageVoService messageVoService;
+    @Autowired
+    private IdempotencyService idempotencyService;
 
     @GetMapping("/message_list")
     public String message_list(Model model,HttpServletRequest request)throws Exception{
@@ -79,15 +84,40 @@ public class MessageController {
 //        return null;
     }
 
+    @GetMapping("/message/getMessageListSeek")
+    @ResponseBody
+    public CursorPage<MessageVo> message_list_seek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<Message> messages=messageService.findPassStateSeek(from.getTime(),from.getId(),6);
+        return CursorPage.of(messages,5,m->PageCursor.encode(m.getTime(),m.getMessageID()),messageVoService::returnVo);
+    }
+
+    @GetMapping("/message/findUserListSeek")
+    @ResponseBody
+    public CursorPage<MessageVo> user_message_list_seek(@RequestParam(value = "cursor",required = false) String cursor,HttpServletRequest request){
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        User loginUser=(User)user;
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<Message> messages=messageService.findByUserSeek(loginUser.getUserID(),from.getTime(),from.getId(),6);
+        return CursorPage.of(messages,5,m->PageCursor.encode(m.getTime(),m.getMessageID()),messageVoService::returnVo);
+    }
+
     @PostMapping("/sendMessage")
     @ResponseBody
-    public void sendMessage(String userID, String content, HttpServletResponse response) throws IOException {
-        Message message=new Message();
-        message.setUserID(userID);
-        message.setContent(content);
-        message.setState(1);
-        message.setTime(LocalDateTime.now());
-        messageService.create(message);
+    public void sendMessage(String userID, String content,
+                            @RequestParam(value = "requestKey",required = false) String requestKey,
+                            HttpServletResponse response) throws IOException {
+        idempotencyService.execute("sendMessage:"+userID,requestKey,content,()->{
+            Message message=new Message();
+            message.setUserID(userID);
+            message.setContent(content);
+            message.setState(1);
+            message.setTime(LocalDateTime.now());
+            return messageService.create(message);
+        });
         response.sendRedirect("/message_list");
     }
 
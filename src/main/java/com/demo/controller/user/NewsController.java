@@ -1,7 +1,9 @@
 package com.demo.controller.user;
 
 import com.demo.entity.News;
+import com.demo.entity.vo.CursorPage;
 import com.demo.service.NewsService;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -35,12 +37,20 @@ public class NewsController {
         return newsService.findAll(news_pageable);
     }
 
+    @GetMapping("/news/getNewsListSeek")
+    @ResponseBody
+    public CursorPage<News> news_list_seek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<News> news=newsService.findSeek(from.getTime(),from.getId(),6);
+        return CursorPage.of(news,5,n->PageCursor.encode(n.getTime(),n.getNewsID()),list->list);
+    }
+
     @GetMapping("/news_list")
     public String news_list(Model model){
         Pageable news_pageable= PageRequest.of(0,5, Sort.by("time").descending());
-        List<News> news_list= newsService.findAll(news_pageable).getContent();
-        model.addAttribute("news_list",news_list);
-        model.addAttribute("total", newsService.findAll(news_pageable).getTotalPages());
+        Page<News> news=newsService.findAll(news_pageable);
+        model.addAttribute("news_list",news.getContent());
+        model.addAttribute("total", news.getTotalPages());
         return "news_list";
     }
 }
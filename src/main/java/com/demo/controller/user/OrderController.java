@@ -3,12 +3,22 @@ package com.demo.controller.user;
 import com.demo.entity.Order;
 import com.demo.entity.User;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.AdmissionTicket;
+import com.demo.entity.vo.CartItem;
+import com.demo.entity.vo.CursorPage;
 import com.demo.entity.vo.OrderVo;
+import com.demo.entity.vo.SeriesResult;
+import com.demo.entity.vo.SlotHold;
+import com.demo.entity.vo.VenueCalendar;
 import com.demo.entity.vo.VenueOrder;
+import com.demo.service.AdmissionService;
+import com.demo.service.IdempotencyService;
 import com.demo.service.OrderService;
 import com.demo.service.OrderVoService;
+import com.demo.service.SlotHoldService;
 import com.demo.service.VenueService;
 import com.demo.exception.LoginException;
+import com.demo.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -20,8 +30,12 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 @Controller
@@ -32,6 +46,12 @@ public class OrderController {
     private OrderVoService orderVoService;
     @Autowired
     private VenueService venueService;
+    @Autowired
+    private SlotHoldService slotHoldService;
+    @Autowired
+    private AdmissionService admissionService;
+    @Autowired
+    private IdempotencyService idempotencyService;
 
     @GetMapping("/order_manage")
     public String order_manage(Model model,HttpServletRequest request){
@@ -73,20 +93,150 @@ public class OrderController {
         return orderVoService.returnVo(page1.getContent());
     }
 
+    @GetMapping("/getOrderListSeek.do")
+    @ResponseBody
+    public CursorPage<OrderVo> order_list_seek(@RequestParam(value = "cursor",required = false) String cursor, HttpServletRequest request){
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        User loginUser=(User)user;
+        PageCursor from=PageCursor.decode(cursor,true);
+        List<Order> orders=orderService.findUserOrderSeek(loginUser.getUserID(),from.getTime(),from.getId(),6);
+        return CursorPage.of(orders,5,o->PageCursor.encode(o.getOrderTime(),o.getOrderID()),orderVoService::returnVo);
+    }
+
     @PostMapping("/addOrder.do")
-    public void addOrder(String venueName, String date, String startTime, int hours,HttpServletRequest request, HttpServletResponse response) throws Exception {
-        date=startTime+":00";
-        DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        LocalDateTime ldt = LocalDateTime.parse(date,df);
+    public void addOrder(String venueName, String date, String startTime, int hours,
+                         @RequestParam(value = "holdID",required = false) String holdID,
+                         @RequestParam(value = "requestKey",required = false) String requestKey,
+                         HttpServletRequest request, HttpServletResponse response) throws Exception {
         Object user=request.getSession().getAttribute("user");
         if(user==null) {
             throw new LoginException("请登录！");
         }
         User loginUser=(User)user;
-        orderService.submit(venueName,ldt,hours,loginUser.getUserID());
+        // 重复点击或网络重试时表单带着同一个requestKey, 只下一次单
+        String fingerprint=venueName+"|"+startTime+"|"+hours+"|"+holdID;
+        idempotencyService.execute("addOrder:"+loginUser.getUserID(),requestKey,fingerprint,()->{
+            if(holdID!=null && !holdID.isEmpty()) {
+                orderService.submitHold(holdID,loginUser.getUserID());
+            } else {
+                DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+                LocalDateTime ldt = LocalDateTime.parse(startTime+":00",df);
+                if(admissionService.isOpen()) {
+                    // 开放预约期间只入队, 由后台按速率下单, 排队状态在订单页显示
+                    admissionService.enqueue(loginUser.getUserID(),venueName,ldt,hours);
+                } else {
+                    orderService.submit(venueName,ldt,hours,loginUser.getUserID());
+                }
+            }
+            return null;
+        });
         response.sendRedirect("order_manage");
     }
 
+    /**
+     * 开放预约期间的排队状态
+     * @return 没有排队记录时为空
+     */
+    @GetMapping("/order/queueStatus.do")
+    @ResponseBody
+    public AdmissionTicket queueStatus(HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        return admissionService.status(((User)user).getUserID());
+    }
+
+    /**
+     * 购物车结算, 多个时段在同一事务中下单, 全部成功或全部失败
+     * @param items [{venueName, startTime: "yyyy-MM-dd HH:mm", hours}]
+     * @return 新订单号
+     */
+    @PostMapping("/order/checkout.do")
+    @ResponseBody
+    public List<Integer> checkout(@RequestBody List<CartItem> items,
+                                  @RequestParam(value = "requestKey",required = false) String requestKey,
+                                  HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        User loginUser=(User)user;
+        return idempotencyService.execute("checkout:"+loginUser.getUserID(),requestKey,String.valueOf(items),()->{
+            List<Integer> orderIDs=new ArrayList<>();
+            for(Order order:orderService.submitCart(items,loginUser.getUserID())) {
+                orderIDs.add(order.getOrderID());
+            }
+            return orderIDs;
+        });
+    }
+
+    /**
+     * 周期预约, 在日期范围内每周同一天同一时段各下一单, 冲突的日期跳过
+     * @param venueName
+     * @param dayOfWeek 1-7, 周一为1
+     * @param startTime HH:mm
+     * @param hours
+     * @param from yyyy-MM-dd
+     * @param to yyyy-MM-dd, 包含
+     * @return 系列号、新订单号和冲突日期
+     */
+    @PostMapping("/order/series.do")
+    @ResponseBody
+    public SeriesResult submitSeries(String venueName, int dayOfWeek, String startTime, int hours,
+                                     String from, String to,
+                                     @RequestParam(value = "requestKey",required = false) String requestKey,
+                                     HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        User loginUser=(User)user;
+        String fingerprint=venueName+"|"+dayOfWeek+"|"+startTime+"|"+hours+"|"+from+"|"+to;
+        return idempotencyService.execute("series:"+loginUser.getUserID(),requestKey,fingerprint,()->
+                orderService.submitSeries(venueName,DayOfWeek.of(dayOfWeek),LocalTime.parse(startTime),hours,
+                        LocalDate.parse(from),LocalDate.parse(to),loginUser.getUserID()));
+    }
+
+    /**
+     * 选中时段后临时预留, 到期前其他用户不能预约该时段
+     * @param venueName
+     * @param startTime yyyy-MM-dd HH:mm
+     * @param hours
+     * @return
+     */
+    @PostMapping("/order/hold.do")
+    @ResponseBody
+    public SlotHold hold(String venueName, String startTime, int hours, HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        User loginUser=(User)user;
+        Venue venue=venueService.findByVenueName(venueName);
+        if(venue==null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime ldt = LocalDateTime.parse(startTime+":00",df);
+        return slotHoldService.hold(loginUser.getUserID(),venue.getVenueID(),ldt,hours);
+    }
+
+    @PostMapping("/order/releaseHold.do")
+    @ResponseBody
+    public boolean releaseHold(String holdID, HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        User loginUser=(User)user;
+        slotHoldService.release(holdID,loginUser.getUserID());
+        return true;
+    }
+
     @PostMapping("/finishOrder.do")
     @ResponseBody
     public void finishOrder(int orderID) {
@@ -134,13 +284,34 @@ public class OrderController {
         DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         LocalDateTime ldt = LocalDateTime.parse(date,df);
         LocalDateTime ldt2=ldt.plusDays(1);
-        System.out.println(ldt);
-        System.out.println(ldt2);
 
         venueOrder.setVenue(venue);
         venueOrder.setOrders(orderService.findDateOrder(venue.getVenueID(),ldt,ldt2));
-        System.out.println(venueOrder);
         return venueOrder;
 
     }
+
+    /**
+     * 场馆多天的预约日历, 一次请求返回一周(最多4周)每天的已预约位图和他人预留位图
+     * @param venueID 与venueName二选一
+     * @param venueName
+     * @param from 第一天 yyyy-MM-dd
+     * @param days 天数, 默认7
+     * @return
+     */
+    @GetMapping("/order/getCalendar.do")
+    @ResponseBody
+    public VenueCalendar getCalendar(@RequestParam(value = "venueID",required = false) Integer venueID,
+                                     @RequestParam(value = "venueName",required = false) String venueName,
+                                     @RequestParam("from") String from,
+                                     @RequestParam(value = "days",defaultValue = "7") int days,
+                                     HttpServletRequest request){
+        Venue venue=venueID!=null?venueService.findByVenueID(venueID):venueService.findByVenueName(venueName);
+        if(venue==null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        Object user=request.getSession().getAttribute("user");
+        String userID=user==null?null:((User)user).getUserID();
+        return orderService.findCalendar(venue,LocalDate.parse(from),days,userID);
+    }
 }
@@ -1,7 +1,10 @@
 package com.demo.controller.user;
 
 import com.demo.entity.Venue;
+import com.demo.entity.vo.CursorPage;
+import com.demo.entity.vo.FreeVenue;
 import com.demo.service.VenueService;
+import com.demo.utils.PageCursor;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -14,6 +17,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Controller
@@ -43,12 +47,44 @@ public class VenueController {
         return venueService.findAll(venue_pageable);
     }
 
+    /**
+     * 游标分页查看场馆, 第一页不传cursor
+     *@param cursor 上一页返回的next
+     */
+    @ResponseBody
+    @GetMapping("/venuelist/getVenueListSeek")
+    public CursorPage<Venue> venue_list_seek(@RequestParam(value = "cursor",required = false) String cursor){
+        PageCursor from=PageCursor.decode(cursor,false);
+        List<Venue> venues=venueService.findSeek(from.getId(),6);
+        return CursorPage.of(venues,5,v->PageCursor.encode(v.getVenueID()),list->list);
+    }
+
+    /**
+     * 跨场馆查找空闲时段, 如某天14点到16点之间有连续2小时空闲的所有场馆
+     *@param date 日期 yyyy-MM-dd
+     *@param fromHour 窗口开始的整点
+     *@param toHour 窗口结束的整点, 不传时为fromHour+hours
+     *@param hours 预约时长
+     *@param maxPrice 每小时价格上限
+     *@param keyword 地址关键字
+     */
+    @ResponseBody
+    @GetMapping("/venuelist/searchFree")
+    public List<FreeVenue> searchFree(@RequestParam("date") String date,
+                                      @RequestParam("fromHour") int fromHour,
+                                      @RequestParam(value = "toHour",required = false) Integer toHour,
+                                      @RequestParam("hours") int hours,
+                                      @RequestParam(value = "maxPrice",required = false) Integer maxPrice,
+                                      @RequestParam(value = "keyword",required = false) String keyword){
+        return venueService.findFree(LocalDate.parse(date),fromHour,toHour==null?fromHour+hours:toHour,hours,maxPrice,keyword);
+    }
+
     @GetMapping("/venue_list")
     public String venue_list(Model model){
         Pageable venue_pageable= PageRequest.of(0,5, Sort.by("venueID").ascending());
-        List<Venue> venue_list=venueService.findAll(venue_pageable).getContent();
-        model.addAttribute("venue_list",venue_list);
-        model.addAttribute("total", venueService.findAll(venue_pageable).getTotalPages());
+        Page<Venue> venues=venueService.findAll(venue_pageable);
+        model.addAttribute("venue_list",venues.getContent());
+        model.addAttribute("total", venues.getTotalPages());
         return "venue_list";
     }
 
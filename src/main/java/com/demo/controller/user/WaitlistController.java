@@ -0,0 +1,67 @@
+package com.demo.controller.user;
+
+import com.demo.entity.User;
+import com.demo.entity.Venue;
+import com.demo.entity.WaitlistEntry;
+import com.demo.exception.LoginException;
+import com.demo.service.VenueService;
+import com.demo.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Controller
+public class WaitlistController {
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private VenueService venueService;
+
+    /**
+     * 时段已被预约时加入候补, 时段释放后自动下单
+     * @param venueName
+     * @param startTime yyyy-MM-dd HH:mm
+     * @param hours
+     * @return
+     */
+    @PostMapping("/waitlist/join.do")
+    @ResponseBody
+    public WaitlistEntry join(String venueName, String startTime, int hours, HttpServletRequest request) {
+        User loginUser=loginUser(request);
+        Venue venue=venueService.findByVenueName(venueName);
+        if(venue==null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        LocalDateTime ldt = LocalDateTime.parse(startTime+":00",df);
+        return waitlistService.join(loginUser.getUserID(),venue.getVenueID(),ldt,hours);
+    }
+
+    @PostMapping("/waitlist/leave.do")
+    @ResponseBody
+    public boolean leave(int id, HttpServletRequest request) {
+        waitlistService.leave(id,loginUser(request).getUserID());
+        return true;
+    }
+
+    @GetMapping("/waitlist/getWaitlist.do")
+    @ResponseBody
+    public List<WaitlistEntry> getWaitlist(HttpServletRequest request) {
+        return waitlistService.findByUser(loginUser(request).getUserID());
+    }
+
+    private User loginUser(HttpServletRequest request) {
+        Object user=request.getSession().getAttribute("user");
+        if(user==null) {
+            throw new LoginException("请登录！");
+        }
+        return (User)user;
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.dao;
+
+import com.demo.entity.LotteryBid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+public interface LotteryBidDao extends JpaRepository<LotteryBid, Integer> {
+
+    List<LotteryBid> findAllByLotteryIDOrderByUserIDAscChoiceAsc(int lotteryID);
+
+    List<LotteryBid> findAllByLotteryIDAndUserIDOrderByChoiceAsc(int lotteryID, String userID);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from lottery_bid where lotteryID=?1 and userID=?2", nativeQuery = true)
+    int deleteByLotteryIDAndUserID(int lotteryID, String userID);
+}
@@ -0,0 +1,26 @@
+package com.demo.dao;
+
+import com.demo.entity.Lottery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface LotteryDao extends JpaRepository<Lottery, Integer> {
+
+    Lottery findByLotteryID(int lotteryID);
+
+    List<Lottery> findAllByState(int state);
+
+    List<Lottery> findAllByVenueIDAndState(int venueID, int state);
+
+    @Query(value = "select l.lotteryID from lottery l where l.state=?1 and l.close_time<=?2", nativeQuery = true)
+    List<Integer> findIDByStateAndCloseTimeBefore(int state, LocalDateTime closeTime);
+
+    /**
+     * 加行锁读取, 防止两个节点同时抽签; 须在事务中调用
+     */
+    @Query(value = "select * from lottery where lotteryID=?1 for update", nativeQuery = true)
+    Lottery findForUpdate(int lotteryID);
+}
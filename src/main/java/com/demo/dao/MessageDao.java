@@ -1,24 +1,48 @@
 package com.demo.dao;
 
 import com.demo.entity.Message;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface MessageDao extends JpaRepository<Message,Integer> {
     Message findByMessageID(int messageID);
 
-    Page<Message> findAllByUserID(String userID,Pageable pageable);
+    Slice<Message> findAllByUserID(String userID,Pageable pageable);
+
+    long countByUserID(String userID);
     
-    Page<Message> findAllByState(int state,Pageable pageable);
+    Slice<Message> findAllByState(int state,Pageable pageable);
+
+    long countByState(int state);
 
     @Transactional
     @Modifying
     @Query(value="update Message o set o.state=?1 where o.messageID=?2",nativeQuery =true)
     void updateState(int state, int messageID);
 
+    /**
+     * 只有当前状态属于from时才更新, 返回受影响行数, 0表示留言不存在或状态不允许
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update message o set o.state=?1 where o.messageID=?2 and o.state in ?3",nativeQuery =true)
+    int updateStateFrom(int state, int messageID, Collection<Integer> from);
+
+    /**
+     * 游标分页: 取(time, messageID)之后的下一批, 倒序
+     */
+    @Query("select m from Message m where m.state=?1 and (m.time<?2 or (m.time=?2 and m.messageID<?3)) order by m.time desc, m.messageID desc")
+    List<Message> findSeekByState(int state, LocalDateTime time, int messageID, Pageable pageable);
+
+    @Query("select m from Message m where m.userID=?1 and (m.time<?2 or (m.time=?2 and m.messageID<?3)) order by m.time desc, m.messageID desc")
+    List<Message> findSeekByUserID(String userID, LocalDateTime time, int messageID, Pageable pageable);
+
 }
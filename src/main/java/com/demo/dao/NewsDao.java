@@ -1,8 +1,25 @@
 package com.demo.dao;
 
 import com.demo.entity.News;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface NewsDao extends JpaRepository<News,Integer> {
 
+    /**
+     * 只查当前页, 不附带count查询, 总数由RowCountService提供
+     */
+    @Query("select n from News n")
+    Slice<News> findSlice(Pageable pageable);
+
+    /**
+     * 游标分页: 取(time, newsID)之后的下一批, 倒序
+     */
+    @Query("select n from News n where n.time<?1 or (n.time=?1 and n.newsID<?2) order by n.time desc, n.newsID desc")
+    List<News> findSeek(LocalDateTime time, int newsID, Pageable pageable);
 }
@@ -1,31 +1,89 @@
 package com.demo.dao;
 
 import com.demo.entity.Order;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface OrderDao extends JpaRepository<Order,Integer> {
+public interface OrderDao extends JpaRepository<Order,Integer>, OrderDaoCustom {
 
     Order findByOrderID(int orderID);
 
-    Page<Order> findAllByState(int state,Pageable pageable);
+    Slice<Order> findAllByState(int state,Pageable pageable);
 
-    List<Order> findByVenueIDAndStartTimeIsBetween(int venueID, LocalDateTime startTime, LocalDateTime startTime2);
+    long countByState(int state);
 
-    @Query(value = "select * from `order` o where o.state = ?1 or o.state = ?2 ", nativeQuery = true)
-    List<Order> findAudit(int state1,int state2);
+    @Query("select coalesce(max(o.orderID), 0) from Order o")
+    long findMaxOrderID();
 
-    Page<Order> findAllByUserID(String userID, Pageable pageable);
+    List<Order> findAllByOrderIDGreaterThan(int orderID);
+
+    List<Order> findAllByStateIn(Collection<Integer> states);
+
+    /**
+     * 分页查看已审核的订单, 不附带count查询
+     */
+    Slice<Order> findAllByStateIn(Collection<Integer> states, Pageable pageable);
+
+    long countByUserID(String userID);
+
+    @Query(value="select count(*) from order_history h where h.userID=?1",nativeQuery =true)
+    long countArchivedByUserID(String userID);
 
     @Transactional
     @Modifying
     @Query(value="update `order` o set o.state=?1 where o.orderID=?2",nativeQuery =true)
     void updateState(int state, int orderID);
+
+    /**
+     * 只有当前状态属于from时才更新, 返回受影响行数, 0表示订单不存在或状态不允许
+     */
+    @Transactional
+    @Modifying
+    @Query(value="update `order` o set o.state=?1 where o.orderID=?2 and o.state in ?3",nativeQuery =true)
+    int updateStateFrom(int state, int orderID, Collection<Integer> from);
+
+    @Transactional
+    @Modifying
+    @Query(value="update `order` o set o.state=?1 where o.orderID in ?2 and o.state in ?3",nativeQuery =true)
+    int updateStatesFrom(int state, Collection<Integer> orderIDs, Collection<Integer> from);
+
+    /**
+     * 配额计数: 每个用户每个场馆每天开始的订单数, 每行为 [userID, venueID, date, count]
+     */
+    @Query(value="select o.userID, o.venueID, date(o.start_time), count(*) from `order` o where o.state in ?1 and o.start_time>=?2 " +
+            "group by o.userID, o.venueID, date(o.start_time)",nativeQuery =true)
+    List<Object[]> countByUserVenueDay(Collection<Integer> states, LocalDateTime startTime);
+
+    @Query(value="select o.orderID from `order` o where o.seriesID=?1",nativeQuery =true)
+    List<Integer> findIDBySeriesID(String seriesID);
+
+    @Query(value="select o.orderID from `order` o where o.venueID=?1 and o.state=?2 and o.start_time>=?3 and o.start_time<?4",nativeQuery =true)
+    List<Integer> findIDByVenueAndState(int venueID, int state, LocalDateTime startTime, LocalDateTime startTime2);
+
+    /**
+     * 只取订单ID和状态, 每行为 [orderID, state]
+     */
+    @Query(value="select o.orderID, o.state from `order` o where o.orderID in ?1",nativeQuery =true)
+    List<Object[]> findStates(Collection<Integer> orderIDs);
+
+    /**
+     * 结束时间(start_time + hours)已过的订单, 按 (state, start_time) 索引分批取
+     */
+    @Query(value="select o.orderID from `order` o where o.state=?1 and o.start_time<?2 " +
+            "and date_add(o.start_time, interval o.hours hour)<=?2 order by o.start_time limit ?3",nativeQuery =true)
+    List<Integer> findPastDueID(int state, LocalDateTime now, int limit);
+
+    /**
+     * 游标分页: 取(orderTime, orderID)之后的下一批, 倒序
+     */
+    @Query("select o from Order o where o.state=?1 and (o.orderTime<?2 or (o.orderTime=?2 and o.orderID<?3)) order by o.orderTime desc, o.orderID desc")
+    List<Order> findSeekByState(int state, LocalDateTime orderTime, int orderID, Pageable pageable);
 }
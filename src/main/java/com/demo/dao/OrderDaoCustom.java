@@ -0,0 +1,47 @@
+package com.demo.dao;
+
+import com.demo.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 需要直接使用JDBC的订单操作, 由OrderDaoImpl实现
+ */
+public interface OrderDaoCustom {
+
+    /**
+     * 用一次JDBC批量插入写入多个订单, 并把生成的orderID回填到订单中
+     * 订单主键是自增列, Hibernate无法对其批量插入
+     *
+     * @param orders
+     */
+    void insertAll(List<Order> orders);
+
+    /**
+     * 在历史表中按订单号查找, 订单表中找不到时使用
+     *
+     * @return 不存在时返回null
+     */
+    Order findArchivedByOrderID(int orderID);
+
+    /**
+     * 用户在订单表和历史表中的全部订单, 按下单时间倒序分页, 忽略pageable中的排序
+     */
+    Slice<Order> findAllWithHistoryByUserID(String userID, Pageable pageable);
+
+    /**
+     * 游标分页: 用户在(orderTime, orderID)之后的下一批订单, 包括历史表, 倒序
+     */
+    List<Order> findSeekWithHistoryByUserID(String userID, LocalDateTime orderTime, int orderID, int limit);
+
+    /**
+     * 把开始时间早于before且状态在states中的订单移到历史表, 每次最多limit个, 须在事务中调用
+     *
+     * @return 被归档的订单
+     */
+    List<Order> archive(Collection<Integer> states, LocalDateTime before, int limit);
+}
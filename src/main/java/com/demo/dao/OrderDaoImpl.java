@@ -0,0 +1,131 @@
+package com.demo.dao;
+
+import com.demo.entity.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class OrderDaoImpl implements OrderDaoCustom {
+    private static final String INSERT = "insert into `order`(userID, venueID, state, order_time, start_time, hours, total, seriesID) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COLUMNS = "orderID, userID, venueID, state, order_time, start_time, hours, total, seriesID";
+
+    private static final String USER_ORDERS = "select " + COLUMNS + " from (" +
+            "(select " + COLUMNS + " from `order` where userID=:userID%1$s order by order_time desc, orderID desc limit :limit) union all " +
+            "(select " + COLUMNS + " from order_history where userID=:userID%1$s order by order_time desc, orderID desc limit :limit)" +
+            ") o order by order_time desc, orderID desc limit :limit offset :offset";
+
+    private static final String AFTER = " and (order_time<:orderTime or (order_time=:orderTime and orderID<:orderID))";
+
+    private static final RowMapper<Order> ROW_MAPPER = (rs, i) -> new Order(rs.getInt("orderID"), rs.getString("userID"),
+            rs.getInt("venueID"), rs.getInt("state"), toLocalDateTime(rs.getTimestamp("order_time")),
+            toLocalDateTime(rs.getTimestamp("start_time")), rs.getInt("hours"), rs.getInt("total"), rs.getString("seriesID"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public void insertAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Order order : orders) {
+                    ps.setString(1, order.getUserID());
+                    ps.setInt(2, order.getVenueID());
+                    ps.setInt(3, order.getState());
+                    ps.setTimestamp(4, Timestamp.valueOf(order.getOrderTime()));
+                    ps.setTimestamp(5, Timestamp.valueOf(order.getStartTime()));
+                    ps.setInt(6, order.getHours());
+                    ps.setInt(7, order.getTotal());
+                    ps.setString(8, order.getSeriesID());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Order order : orders) {
+                        keys.next();
+                        order.setOrderID(keys.getInt(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public Order findArchivedByOrderID(int orderID) {
+        List<Order> orders = jdbcTemplate.query("select " + COLUMNS + " from order_history where orderID=?", ROW_MAPPER, orderID);
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    @Override
+    public Slice<Order> findAllWithHistoryByUserID(String userID, Pageable pageable) {
+        // 两张表各取到本页末尾再合并, 多取一个判断是否还有下一页
+        int size = pageable.getPageSize();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userID", userID)
+                .addValue("limit", (int) pageable.getOffset() + size + 1)
+                .addValue("offset", pageable.getOffset());
+        List<Order> orders = namedParameterJdbcTemplate.query(String.format(USER_ORDERS, ""), params, ROW_MAPPER);
+        boolean hasNext = orders.size() > size;
+        return new SliceImpl<>(hasNext ? orders.subList(0, size) : orders, pageable, hasNext);
+    }
+
+    @Override
+    public List<Order> findSeekWithHistoryByUserID(String userID, LocalDateTime orderTime, int orderID, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userID", userID)
+                .addValue("orderTime", Timestamp.valueOf(orderTime))
+                .addValue("orderID", orderID)
+                .addValue("limit", limit)
+                .addValue("offset", 0);
+        return namedParameterJdbcTemplate.query(String.format(USER_ORDERS, AFTER), params, ROW_MAPPER);
+    }
+
+    @Override
+    public List<Order> archive(Collection<Integer> states, LocalDateTime before, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("states", states)
+                .addValue("before", Timestamp.valueOf(before))
+                .addValue("limit", limit);
+        List<Order> orders = namedParameterJdbcTemplate.query("select " + COLUMNS + " from `order` " +
+                "where state in (:states) and start_time<:before order by start_time limit :limit for update", params, ROW_MAPPER);
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        List<Integer> orderIDs = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            orderIDs.add(order.getOrderID());
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("orderIDs", orderIDs);
+        namedParameterJdbcTemplate.update("insert into order_history(" + COLUMNS + ", archived_time) " +
+                "select " + COLUMNS + ", now() from `order` where orderID in (:orderIDs)", ids);
+        namedParameterJdbcTemplate.update("delete from `order` where orderID in (:orderIDs)", ids);
+        return orders;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRollupDao extends JpaRepository<OrderRollup, Integer> {
+
+    /**
+     * 把一个订单的变化量累加到 (venueID, day, state) 行, 行不存在时插入
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into order_rollup(venueID, day, state, bookings, hours, revenue) values (?1, ?2, ?3, ?4, ?5, ?6) " +
+            "on duplicate key update bookings=bookings+values(bookings), hours=hours+values(hours), revenue=revenue+values(revenue)",
+            nativeQuery = true)
+    int add(int venueID, LocalDate day, int state, int bookings, int hours, long revenue);
+
+    /**
+     * 按订单表中的场馆、日期、时长和金额, 把这些订单以sign计入state的汇总, 用于只知道订单ID的状态变更
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into order_rollup(venueID, day, state, bookings, hours, revenue) " +
+            "select o.venueID, date(o.start_time), ?2, ?3*count(*), ?3*sum(o.hours), ?3*sum(o.total) from `order` o " +
+            "where o.orderID in ?1 group by o.venueID, date(o.start_time) " +
+            "on duplicate key update bookings=bookings+values(bookings), hours=hours+values(hours), revenue=revenue+values(revenue)",
+            nativeQuery = true)
+    int addOrders(Collection<Integer> orderIDs, int state, int sign);
+
+    @Query(value = "select o.venueID from `order` o union select h.venueID from order_history h " +
+            "union select r.venueID from order_rollup r", nativeQuery = true)
+    List<Integer> findVenueIDs();
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from order_rollup where venueID in ?1", nativeQuery = true)
+    int deleteByVenueIDIn(Collection<Integer> venueIDs);
+
+    /**
+     * 从订单表和历史表重新计算这些场馆的汇总, 调用前先删除旧行
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into order_rollup(venueID, day, state, bookings, hours, revenue) " +
+            "select o.venueID, date(o.start_time), o.state, count(*), sum(o.hours), sum(o.total) from (" +
+            "select venueID, start_time, state, hours, total from `order` where venueID in ?1 union all " +
+            "select venueID, start_time, state, hours, total from order_history where venueID in ?1) o " +
+            "group by o.venueID, date(o.start_time), o.state", nativeQuery = true)
+    int rebuildVenues(Collection<Integer> venueIDs);
+
+    /**
+     * 每行为 [venueID, day, bookings, hours, revenue]; venueID为0时查全部场馆
+     */
+    @Query(value = "select r.venueID, date_format(r.day, '%Y-%m-%d'), sum(r.bookings), sum(r.hours), sum(r.revenue) from order_rollup r " +
+            "where (?1 = 0 or r.venueID = ?1) and r.day >= ?2 and r.day <= ?3 and r.state in ?4 " +
+            "group by r.venueID, r.day order by r.day, r.venueID", nativeQuery = true)
+    List<Object[]> sumByDay(int venueID, LocalDate from, LocalDate to, Collection<Integer> states);
+
+    @Query(value = "select r.venueID, date_format(r.day, '%Y-%m'), sum(r.bookings), sum(r.hours), sum(r.revenue) from order_rollup r " +
+            "where (?1 = 0 or r.venueID = ?1) and r.day >= ?2 and r.day <= ?3 and r.state in ?4 " +
+            "group by r.venueID, date_format(r.day, '%Y-%m') order by 2, r.venueID", nativeQuery = true)
+    List<Object[]> sumByMonth(int venueID, LocalDate from, LocalDate to, Collection<Integer> states);
+}
@@ -0,0 +1,23 @@
+package com.demo.dao;
+
+import com.demo.entity.Order;
+import com.demo.entity.OrderSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderSlotDao extends JpaRepository<OrderSlot, Integer>, OrderSlotDaoCustom {
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from order_slot where orderID in ?1", nativeQuery = true)
+    int deleteByOrderIDIn(Collection<Integer> orderIDs);
+
+    @Query(value = "select * from `order` o where o.state in ?1 " +
+            "and not exists (select 1 from order_slot s where s.orderID = o.orderID)", nativeQuery = true)
+    List<Order> findOrdersWithoutSlots(Collection<Integer> states);
+}
@@ -0,0 +1,15 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderSlot;
+
+import java.util.List;
+
+public interface OrderSlotDaoCustom {
+
+    /**
+     * JDBC批量写入台账, 调用前须已在slot_usage中占到这些小时
+     *
+     * @param slots
+     */
+    void insertAll(List<OrderSlot> slots);
+}
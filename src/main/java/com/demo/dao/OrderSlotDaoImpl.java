@@ -0,0 +1,26 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderSlot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public class OrderSlotDaoImpl implements OrderSlotDaoCustom {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OrderSlot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("insert into order_slot(orderID, venueID, slot_start) values (?, ?, ?)", slots, slots.size(),
+                (ps, slot) -> {
+                    ps.setInt(1, slot.getOrderID());
+                    ps.setInt(2, slot.getVenueID());
+                    ps.setTimestamp(3, Timestamp.valueOf(slot.getSlotStart()));
+                });
+    }
+}
@@ -0,0 +1,60 @@
+package com.demo.dao;
+
+import com.demo.entity.SlotUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SlotUsageDao extends JpaRepository<SlotUsage, SlotUsage.Key>, SlotUsageDaoCustom {
+
+    /**
+     * 还有空闲场地时占用一块, 返回0表示已约满; 计数行须已存在
+     * 容量在语句中从场馆表读取, 其他节点修改的容量立即生效
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update slot_usage u join venue v on v.venueID=u.venueID set u.used=u.used+1 " +
+            "where u.venueID=?1 and u.slot_start=?2 and u.used<v.capacity", nativeQuery = true)
+    int claim(int venueID, LocalDateTime slotStart);
+
+    /**
+     * 按台账归还这些订单占用的场地, 同一小时被多个订单占用时一次减去对应的数量
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update slot_usage u join (select venueID, slot_start, count(*) n from order_slot where orderID in ?1 " +
+            "group by venueID, slot_start) s on u.venueID=s.venueID and u.slot_start=s.slot_start " +
+            "set u.used=greatest(u.used-s.n, 0)", nativeQuery = true)
+    int releaseOrders(Collection<Integer> orderIDs);
+
+    /**
+     * 这些小时中已约满的, 与场馆表中的容量比较
+     */
+    @Query("select u.slotStart from SlotUsage u, Venue v where v.venueID=u.venueID and u.venueID=?1 " +
+            "and u.slotStart in ?2 and u.used>=v.capacity")
+    List<LocalDateTime> findFullIn(int venueID, Collection<LocalDateTime> slotStarts);
+
+    @Query("select u.slotStart from SlotUsage u, Venue v where v.venueID=u.venueID and u.venueID=?1 " +
+            "and u.slotStart>=?2 and u.slotStart<?3 and u.used>=v.capacity")
+    List<LocalDateTime> findFull(int venueID, LocalDateTime from, LocalDateTime to);
+
+    @Query("select u from SlotUsage u where u.venueID=?1 and u.slotStart>=?2 and u.slotStart<?3 and u.used>0")
+    List<SlotUsage> findUsed(int venueID, LocalDateTime from, LocalDateTime to);
+
+    @Query("select coalesce(max(u.used), 0) from SlotUsage u where u.venueID=?1 and u.slotStart>=?2")
+    int findMaxUsed(int venueID, LocalDateTime from);
+
+    /**
+     * 按台账重新计算全部计数, 用于计数表为空时从旧数据补齐
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into slot_usage(venueID, slot_start, used) select venueID, slot_start, count(*) from order_slot " +
+            "group by venueID, slot_start on duplicate key update used=values(used)", nativeQuery = true)
+    int rebuild();
+}
@@ -0,0 +1,15 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderSlot;
+
+import java.util.List;
+
+public interface SlotUsageDaoCustom {
+
+    /**
+     * JDBC批量确保这些小时的计数行存在, 已存在的行不变; 按主键加排他锁, 随后的条件UPDATE不需要再升级锁
+     *
+     * @param slots
+     */
+    void ensureAll(List<OrderSlot> slots);
+}
@@ -0,0 +1,25 @@
+package com.demo.dao;
+
+import com.demo.entity.OrderSlot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public class SlotUsageDaoImpl implements SlotUsageDaoCustom {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void ensureAll(List<OrderSlot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("insert into slot_usage(venueID, slot_start, used) values (?, ?, 0) on duplicate key update used=used",
+                slots, slots.size(), (ps, slot) -> {
+                    ps.setInt(1, slot.getVenueID());
+                    ps.setTimestamp(2, Timestamp.valueOf(slot.getSlotStart()));
+                });
+    }
+}
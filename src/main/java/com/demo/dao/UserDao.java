@@ -1,14 +1,20 @@
 package com.demo.dao;
 
 import com.demo.entity.User;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserDao extends JpaRepository<User,Integer> {
     User findByUserIDAndPassword(String userID, String password);
     User findByUserID(String userID);
-    Page<User> findAllByIsadmin(int isadmin, Pageable pageable);
+    List<User> findAllByUserIDIn(Collection<String> userIDs);
+    Slice<User> findAllByIsadmin(int isadmin, Pageable pageable);
+    long countByIsadmin(int isadmin);
     int countByUserID(String userID);
     User findById(int id);
+    List<User> findAllByIsadminAndIdGreaterThanOrderByIdAsc(int isadmin, int id, Pageable pageable);
 }
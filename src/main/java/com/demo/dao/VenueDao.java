@@ -1,9 +1,12 @@
 package com.demo.dao;
 
 import com.demo.entity.Venue;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface VenueDao extends JpaRepository<Venue, Integer> {
@@ -11,10 +14,20 @@ public interface VenueDao extends JpaRepository<Venue, Integer> {
 
     Venue findByVenueName(String venueName);
 
+    List<Venue> findByVenueNameIn(Collection<String> venueNames);
+
     @Override
     @Query(value = "select * from venue",nativeQuery = true)
     List<Venue> findAll();
 
     int countByVenueName(String venueName);
 
+    /**
+     * 只查当前页, 不附带count查询, 总数由RowCountService提供
+     */
+    @Query("select v from Venue v")
+    Slice<Venue> findSlice(Pageable pageable);
+
+    List<Venue> findAllByVenueIDGreaterThanOrderByVenueIDAsc(int venueID, Pageable pageable);
+
 }
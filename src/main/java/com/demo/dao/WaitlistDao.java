@@ -0,0 +1,22 @@
+package com.demo.dao;
+
+import com.demo.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistDao extends JpaRepository<WaitlistEntry, Integer> {
+
+    List<WaitlistEntry> findAllByStartTimeAfterOrderByIdAsc(LocalDateTime startTime);
+
+    List<WaitlistEntry> findAllByUserIDOrderByStartTimeAsc(String userID);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from waitlist where start_time<?1", nativeQuery = true)
+    int deleteByStartTimeBefore(LocalDateTime startTime);
+}
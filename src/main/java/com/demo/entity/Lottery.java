@@ -0,0 +1,49 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 抽签: 场馆在[slotFrom, slotTo)内的时段不接受直接预约, closeTime前收集志愿, 之后统一抽签分配
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "lottery", indexes = @Index(name = "state_close_time", columnList = "state,close_time"))
+public class Lottery {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int lotteryID;
+
+    private int venueID;
+
+    @Column(name = "slot_from")
+    private LocalDateTime slotFrom;
+
+    @Column(name = "slot_to")
+    private LocalDateTime slotTo;
+
+    /**
+     * 截止提交志愿的时间
+     */
+    @Column(name = "close_time")
+    private LocalDateTime closeTime;
+
+    /**
+     * 1收集志愿 2已抽签
+     */
+    private int state;
+
+    /**
+     * 打乱用户顺序的随机种子, 保存下来便于复核抽签结果
+     */
+    private long seed;
+
+    @Column(name = "draw_time")
+    private LocalDateTime drawTime;
+}
@@ -0,0 +1,42 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 抽签志愿: 用户的每个候选时段一行, choice越小越优先
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "lottery_bid",
+        uniqueConstraints = @UniqueConstraint(name = "lottery_user_choice", columnNames = {"lotteryID", "userID", "choice"}))
+public class LotteryBid {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    private int lotteryID;
+
+    private String userID;
+
+    private int choice;
+
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    /**
+     * 中签后生成的订单, 未抽签或未中签为null
+     */
+    private Integer orderID;
+
+    @Column(name = "create_time")
+    private LocalDateTime createTime;
+}
@@ -14,7 +14,10 @@ import java.util.Date;
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name="`order`")
+@Table(name="`order`", indexes = {@Index(name = "state_start_time", columnList = "state,start_time"),
+        @Index(name = "seriesID", columnList = "seriesID"),
+        @Index(name = "state_order_time", columnList = "state,order_time,orderID"),
+        @Index(name = "userID_order_time", columnList = "userID,order_time,orderID")})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,4 +43,9 @@ public class Order {
 
     private int total;
 
+    /**
+     * 周期预约的系列号, 同一系列的订单相同, 单次预约为null
+     */
+    private String seriesID;
+
 }
@@ -0,0 +1,43 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的历史订单: 开始时间早于归档期限的已完成和失效订单从订单表移到这里, 字段与订单表相同
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_history", indexes = {@Index(name = "venue_start_time", columnList = "venueID,start_time"),
+        @Index(name = "userID_order_time", columnList = "userID,order_time,orderID")})
+public class OrderHistory {
+    @Id
+    private int orderID;
+
+    private String userID;
+
+    private int venueID;
+
+    private int state;
+
+    @Column(name = "order_time")
+    private LocalDateTime orderTime;
+
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    private int total;
+
+    private String seriesID;
+
+    @Column(name = "archived_time")
+    private LocalDateTime archivedTime;
+}
@@ -0,0 +1,39 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 订单汇总: 每个场馆每天每种状态一行, 记录订单数、预约小时数和金额, 随订单增删改增量更新
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "venue_day_state", columnNames = {"venueID", "day", "state"}),
+        indexes = @Index(name = "day", columnList = "day"))
+public class OrderRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    private int venueID;
+
+    /**
+     * 预约开始时间所在的日期
+     */
+    private LocalDate day;
+
+    private int state;
+
+    private int bookings;
+
+    private int hours;
+
+    private long revenue;
+}
@@ -0,0 +1,30 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 预约时段台账: 订单占用的每个小时一行, 用于释放时知道要归还哪些小时; 容量由slot_usage的计数保证
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_slot",
+        uniqueConstraints = @UniqueConstraint(name = "order_slot", columnNames = {"orderID", "slot_start"}))
+public class OrderSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    private int orderID;
+
+    private int venueID;
+
+    @Column(name = "slot_start")
+    private LocalDateTime slotStart;
+}
@@ -0,0 +1,39 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 时段占用计数: 每个场馆每小时一行, used为已占用的场地数, 下单时用 used<容量 的条件UPDATE加一
+ * 主键就是 (venueID, slot_start), 加锁只锁这一行, 不会锁到相邻时段的间隙
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(SlotUsage.Key.class)
+@Table(name = "slot_usage")
+public class SlotUsage {
+    @Id
+    private int venueID;
+
+    @Id
+    @Column(name = "slot_start")
+    private LocalDateTime slotStart;
+
+    private int used;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private int venueID;
+
+        private LocalDateTime slotStart;
+    }
+}
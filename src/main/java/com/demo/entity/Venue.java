@@ -33,4 +33,15 @@ public class Venue {
     private String open_time;
 
     private String close_time;
+
+    /**
+     * 可同时预约的场地数, 如羽毛球馆的球场数, 每个小时最多接受这么多订单
+     */
+    @Column(columnDefinition = "int(3) not null default 1")
+    private int capacity=1;
+
+    public Venue(int venueID, String venueName, String description, int price, String picture, String address,
+                 String open_time, String close_time) {
+        this(venueID,venueName,description,price,picture,address,open_time,close_time,1);
+    }
 }
@@ -0,0 +1,35 @@
+package com.demo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 候补队列: 用户等待某场馆某时段, 时段被释放时按加入顺序自动转为订单
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "waitlist", indexes = {@Index(name = "venue_start_time", columnList = "venueID,start_time"),
+        @Index(name = "userID", columnList = "userID")})
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    private String userID;
+
+    private int venueID;
+
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    @Column(name = "create_time")
+    private LocalDateTime createTime;
+}
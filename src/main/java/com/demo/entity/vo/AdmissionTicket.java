@@ -0,0 +1,49 @@
+package com.demo.entity.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 开放预约期间排队的下单请求
+ */
+@Data
+@NoArgsConstructor
+public class AdmissionTicket {
+    public static final String STATE_WAITING = "waiting";
+    public static final String STATE_DONE = "done";
+    public static final String STATE_FAILED = "failed";
+
+    /**
+     * 入队序号, 与已处理数之差即为排队位置
+     */
+    @JsonIgnore
+    private long seq;
+
+    private String userID;
+
+    private String venueName;
+
+    @JsonFormat(shape=JsonFormat.Shape.STRING, pattern="yyyy-MM-dd HH:mm")
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    /**
+     * 前面还有几个请求, 已处理时为0
+     */
+    private long position;
+
+    private String state;
+
+    /**
+     * 下单失败的原因
+     */
+    private String message;
+
+    @JsonIgnore
+    private LocalDateTime finishTime;
+}
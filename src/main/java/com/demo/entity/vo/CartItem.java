@@ -0,0 +1,23 @@
+package com.demo.entity.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 购物车中的一个预约时段
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItem {
+    private String venueName;
+
+    @JsonFormat(shape=JsonFormat.Shape.STRING, pattern="yyyy-MM-dd HH:mm")
+    private LocalDateTime startTime;
+
+    private int hours;
+}
@@ -0,0 +1,34 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果, next为空表示没有下一页
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    private String next;
+
+    /**
+     * @param rows 按size+1条查询的结果, 多出的一条只用来判断是否还有下一页
+     * @param size 每页条数
+     * @param cursor 由一页的最后一条记录生成下一页的游标
+     * @param convert 把记录转换为返回给前端的对象
+     */
+    public static <R, T> CursorPage<T> of(List<R> rows, int size, Function<R, String> cursor, Function<List<R>, List<T>> convert) {
+        boolean more = rows.size() > size;
+        List<R> page = more ? rows.subList(0, size) : rows;
+        String next = more ? cursor.apply(page.get(page.size() - 1)) : null;
+        return new CursorPage<>(convert.apply(page), next);
+    }
+}
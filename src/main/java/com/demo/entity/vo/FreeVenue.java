@@ -0,0 +1,24 @@
+package com.demo.entity.vo;
+
+import com.demo.entity.Venue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 空闲场馆搜索结果: 场馆, 窗口内最早可预约的开始时间和按时长计算的总价
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeVenue {
+    private Venue venue;
+
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    private int total;
+}
@@ -0,0 +1,22 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 周期预约的结果: 已生成的订单和因冲突跳过的日期
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesResult {
+    private String seriesID;
+
+    private List<Integer> orderIDs;
+
+    private List<LocalDate> conflicts;
+}
@@ -0,0 +1,25 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预约冲突时推荐的可选时段
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotAlternative {
+    private int venueID;
+
+    private String venueName;
+
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    private int total;
+}
@@ -0,0 +1,19 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 时段冲突的JSON响应: 提示信息和推荐的可选时段
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotConflictVo {
+    private String message;
+
+    private List<SlotAlternative> alternatives;
+}
@@ -0,0 +1,27 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 下单前对时段的临时预留, 到期自动释放
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHold {
+    private String holdID;
+
+    private String userID;
+
+    private int venueID;
+
+    private LocalDateTime startTime;
+
+    private int hours;
+
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,33 @@
+package com.demo.entity.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepStats {
+
+    private long runs;
+
+    /**
+     * 已审核且已过期, 置为已完成的订单数
+     */
+    private long finished;
+
+    /**
+     * 未审核且已过期, 置为失效的订单数
+     */
+    private long expired;
+
+    private long lastMillis;
+
+    private long totalMillis;
+
+    @JsonFormat(shape=JsonFormat.Shape.STRING, pattern="yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime lastRunTime;
+}
@@ -0,0 +1,43 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 场馆多天的预约日历, 每天用一个24位的位图表示, 第i位对应i点到i+1点
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueCalendar {
+    private int venueID;
+
+    private String venueName;
+
+    private String openTime;
+
+    private String closeTime;
+
+    /**
+     * taken[0]对应的日期
+     */
+    private LocalDate from;
+
+    /**
+     * 开放时段位图, 每天相同
+     */
+    private int openMask;
+
+    /**
+     * 每天已被预约的时段位图, 空闲时段为 openMask & ~taken[i]
+     */
+    private int[] taken;
+
+    /**
+     * 每天被其他用户临时预留的时段位图, 同样不可预约
+     */
+    private int[] held;
+}
@@ -0,0 +1,26 @@
+package com.demo.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 场馆某天或某月的预约汇总
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VenueRollup {
+    private int venueID;
+
+    /**
+     * 按天汇总为yyyy-MM-dd, 按月汇总为yyyy-MM
+     */
+    private String period;
+
+    private long bookings;
+
+    private long hours;
+
+    private long revenue;
+}
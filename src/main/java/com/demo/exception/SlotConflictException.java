@@ -0,0 +1,41 @@
+package com.demo.exception;
+
+import com.demo.entity.vo.SlotAlternative;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SlotConflictException extends RuntimeException {
+    /**
+     * 推荐的可选时段, 没有时为空列表
+     */
+    private List<SlotAlternative> alternatives = Collections.emptyList();
+
+    public SlotConflictException() {
+    }
+
+    public SlotConflictException(String message) {
+        super(message);
+    }
+
+    public SlotConflictException(String message, List<SlotAlternative> alternatives) {
+        super(message);
+        this.alternatives = alternatives;
+    }
+
+    public SlotConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public SlotConflictException(Throwable cause) {
+        super(cause);
+    }
+
+    public SlotConflictException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+    public List<SlotAlternative> getAlternatives() {
+        return alternatives;
+    }
+}
@@ -0,0 +1,22 @@
+package com.demo.exception;
+
+public class StateConflictException extends RuntimeException {
+    public StateConflictException() {
+    }
+
+    public StateConflictException(String message) {
+        super(message);
+    }
+
+    public StateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StateConflictException(Throwable cause) {
+        super(cause);
+    }
+
+    public StateConflictException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+}
@@ -0,0 +1,45 @@
+package com.demo.service;
+
+import com.demo.entity.vo.AdmissionTicket;
+
+import java.time.LocalDateTime;
+
+/**
+ * 开放预约模式: 下单请求先进入有界队列立即返回排队位置, 后台按固定速率依次下单, 数据库看到的是平稳的写入
+ */
+public interface AdmissionService {
+
+    boolean isOpen();
+
+    /**
+     * 管理员开启或关闭开放预约模式, 关闭后队列中已有的请求仍会处理完
+     *
+     * @param open
+     */
+    void setOpen(boolean open);
+
+    /**
+     * 下单请求入队, 每个用户同时只能排一个, 队列已满时抛出异常
+     *
+     * @return 带排队位置的凭据
+     */
+    AdmissionTicket enqueue(String userID, String venueName, LocalDateTime startTime, int hours);
+
+    /**
+     * 用户最近一次排队的状态, 没有则为null
+     *
+     * @param userID
+     * @return
+     */
+    AdmissionTicket status(String userID);
+
+    /**
+     * 按入队顺序处理最多max个请求
+     *
+     * @param max
+     * @return 处理的请求数
+     */
+    int drain(int max);
+
+    int queued();
+}
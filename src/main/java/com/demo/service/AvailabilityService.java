@@ -0,0 +1,79 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 场馆时段占用索引: 场馆 -> 日期 -> 小时位图, 只包含未审核和已审核的有效订单
+ */
+public interface AvailabilityService {
+
+    /**
+     * 检查并占用订单的时段, 与已有订单冲突时返回false且不做修改
+     *
+     * @param order
+     * @return
+     */
+    boolean tryBook(Order order);
+
+    /**
+     * 不做冲突检查直接占用, 用于加载历史数据和回滚恢复
+     *
+     * @param order
+     */
+    void book(Order order);
+
+    /**
+     * 释放订单占用的时段
+     *
+     * @param orderID
+     * @return 被释放的订单快照, 订单不在索引中时返回null
+     */
+    Order release(int orderID);
+
+    boolean isFree(int venueID, LocalDateTime startTime, int hours);
+
+    /**
+     * 时段内每个小时剩余场地数的最小值, 场馆容量为1时等价于isFree
+     *
+     * @param venueID
+     * @param startTime
+     * @param hours
+     * @return
+     */
+    int remaining(int venueID, LocalDateTime startTime, int hours);
+
+    /**
+     * 更新场馆容量, 容量以下的同时段订单互不冲突
+     *
+     * @param venueID
+     * @param capacity
+     */
+    void setCapacity(int venueID, int capacity);
+
+    /**
+     * 场馆某天的占用位图, 第i位为1表示i点到i+1点已约满
+     *
+     * @param venueID
+     * @param day
+     * @return
+     */
+    int takenHours(int venueID, LocalDate day);
+
+    /**
+     * 所有场馆某天的占用位图, 当天没有预约的场馆不在结果中
+     *
+     * @param day
+     * @return venueID -> 占用位图
+     */
+    Map<Integer, Integer> takenHours(LocalDate day);
+
+    /**
+     * 开始时间在[startTime, startTime2)内的有效订单
+     */
+    List<Order> findDateOrder(int venueID, LocalDateTime startTime, LocalDateTime startTime2);
+}
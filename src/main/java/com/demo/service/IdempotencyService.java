@@ -0,0 +1,32 @@
+package com.demo.service;
+
+import java.util.function.Supplier;
+
+/**
+ * 防重复提交: 表单或客户端带上请求标识, 同一标识在有效期内只执行一次, 重试的请求直接拿到第一次的结果
+ */
+public interface IdempotencyService {
+
+    /**
+     * 请求标识的最大长度, 超长的标识不接受
+     */
+    int MAX_KEY_LENGTH = 64;
+
+    /**
+     * 执行一次写操作, 同一标识的并发请求等待第一次执行完成后返回同一结果,
+     * 第一次执行抛出异常时不保留记录, 之后的重试会重新执行;
+     * 同一标识带着不同的请求内容时拒绝执行, 避免页面回退后的新提交被当成重试
+     *
+     * @param scope 接口和用户, 不同用户的标识互不影响
+     * @param key 请求标识, 为空时不做检查直接执行
+     * @param fingerprint 请求内容, 由提交的参数拼成
+     * @param action
+     * @return 第一次执行的结果
+     */
+    <T> T execute(String scope, String key, String fingerprint, Supplier<T> action);
+
+    /**
+     * 清理已过期的记录
+     */
+    void purge();
+}
@@ -0,0 +1,64 @@
+package com.demo.service;
+
+import com.demo.entity.Lottery;
+import com.demo.entity.LotteryBid;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 热门时段的抽签分配: 截止前收集每个用户按优先级排列的候选时段, 截止后一次性随机分配并批量写入订单
+ */
+public interface LotteryService {
+    int STATE_OPEN=1;
+    int STATE_DRAWN=2;
+
+    /**
+     * 每个用户最多填写的候选时段数
+     */
+    int MAX_CHOICES=3;
+
+    /**
+     * 开设抽签, 同一场馆未开奖的抽签时段不能重叠
+     *
+     * @param venueID
+     * @param slotFrom 抽签时段的开始
+     * @param slotTo 抽签时段的结束, 不包含
+     * @param closeTime 截止提交志愿的时间, 不晚于slotFrom
+     * @return
+     */
+    Lottery create(int venueID, LocalDateTime slotFrom, LocalDateTime slotTo, LocalDateTime closeTime);
+
+    /**
+     * 提交志愿, 覆盖该用户之前的志愿
+     *
+     * @param lotteryID
+     * @param userID
+     * @param startTimes 按优先级排列的候选开始时间, 最多MAX_CHOICES个
+     * @param hours 每个候选的时长
+     * @return
+     */
+    List<LotteryBid> bid(int lotteryID, String userID, List<LocalDateTime> startTimes, int hours);
+
+    List<LotteryBid> findBids(int lotteryID, String userID);
+
+    List<Lottery> findOpen(int venueID);
+
+    /**
+     * 抽签: 随机打乱用户顺序, 每个用户依次得到仍然空闲的最优先候选, 每人最多中一个
+     *
+     * @param lotteryID
+     * @return 中签的订单数
+     */
+    int draw(int lotteryID);
+
+    /**
+     * 抽签截止后自动开奖
+     */
+    void drawDue();
+
+    /**
+     * 时段是否属于未开奖的抽签, 这类时段不能直接预约
+     */
+    boolean isReserved(int venueID, LocalDateTime startTime, int hours);
+}
@@ -4,6 +4,9 @@ import com.demo.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface MessageService {
 
     int STATE_NO_AUDIT=1;
@@ -36,12 +39,37 @@ public interface MessageService {
 
     void update(Message message);
 
+    /**
+     * 审核通过, 只允许未审核的留言
+     *
+     * @param messageID
+     * @throws com.demo.exception.StateConflictException 留言状态不允许
+     */
     void confirmMessage(int messageID);
 
+    /**
+     * 拒绝发表, 只允许未审核或已通过的留言
+     *
+     * @param messageID
+     * @throws com.demo.exception.StateConflictException 留言状态不允许
+     */
     void rejectMessage(int messageID);
 
     Page<Message> findWaitState(Pageable pageable);
 
     Page<Message> findPassState(Pageable pageable);
 
+    /**
+     * 游标分页, 按留言时间倒序
+     * @param time 上一页最后一条的时间
+     * @param messageID 上一页最后一条的留言ID
+     * @param size
+     * @return
+     */
+    List<Message> findWaitStateSeek(LocalDateTime time, int messageID, int size);
+
+    List<Message> findPassStateSeek(LocalDateTime time, int messageID, int size);
+
+    List<Message> findByUserSeek(String userID, LocalDateTime time, int messageID, int size);
+
 }
@@ -5,9 +5,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable
         ;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface NewsService {
     Page<News> findAll(Pageable pageable);
 
+    /**
+     * 游标分页, 按发布时间倒序
+     */
+    List<News> findSeek(LocalDateTime time, int newsID, int size);
+
     News findById(int newsID);
 
     int create(News news);
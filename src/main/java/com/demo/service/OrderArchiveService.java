@@ -0,0 +1,14 @@
+package com.demo.service;
+
+/**
+ * 定时归档: 开始时间早于归档期限的已完成和失效订单分批移到历史表, 订单表只保留近期数据
+ */
+public interface OrderArchiveService {
+
+    /**
+     * 分批归档全部超过期限的订单, 每批之间暂停一段时间, 避免长时间占用数据库; 已在归档时直接返回
+     *
+     * @return 本次归档的订单数
+     */
+    int archive();
+}
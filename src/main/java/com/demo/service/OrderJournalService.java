@@ -0,0 +1,57 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+
+import java.util.Collection;
+
+/**
+ * 订单事件日志: 订单的新建、修改和状态变更在事务提交后追加到本地的内存映射日志, 定期写紧凑的二进制快照并截断日志
+ * 启动时读最近的快照再重放之后的日志, 得到全部有效订单, 不需要扫描订单表;
+ * 比快照中最大订单号新的订单按订单表补齐, 再与订单表的有效订单数核对, 不一致时回到查询订单表
+ * 只记录本节点的写入, 多个节点共用数据库时不要开启
+ */
+public interface OrderJournalService {
+
+    /**
+     * 订单新建或修改后的完整快照
+     *
+     * @param order
+     */
+    void booked(Order order);
+
+    /**
+     * 订单状态变更
+     *
+     * @param orderIDs
+     * @param state
+     */
+    void changed(Collection<Integer> orderIDs, int state);
+
+    void deleted(int orderID);
+
+    /**
+     * 启动时是否从快照和日志恢复出了有效订单, 未开启、没有快照或核对不一致时为false, 由调用方查询订单表
+     *
+     * @return
+     */
+    boolean isRecovered();
+
+    /**
+     * 恢复出的有效订单(未审核和已审核)
+     *
+     * @return
+     */
+    Collection<Order> recovered();
+
+    /**
+     * 以查询订单表得到的有效订单为起点重新开始记录
+     *
+     * @param orders
+     */
+    void reset(Collection<Order> orders);
+
+    /**
+     * 把当前的有效订单写成快照, 之前的日志不再需要
+     */
+    void snapshot();
+}
@@ -0,0 +1,51 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+import com.demo.entity.vo.VenueRollup;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 场馆按天/按月的预约汇总, 订单变化时增量维护, 查询只读汇总表
+ */
+public interface OrderRollupService {
+
+    /**
+     * 把订单按当前的场馆、日期、状态计入(sign为1)或移出(sign为-1)汇总
+     *
+     * @param order
+     * @param sign
+     */
+    void add(Order order, int sign);
+
+    /**
+     * 订单状态从from变为to, 场馆、日期和金额从订单表读取
+     *
+     * @param orderIDs
+     * @param from
+     * @param to
+     */
+    void move(Collection<Integer> orderIDs, int from, int to);
+
+    /**
+     * 从订单表重新计算全部汇总, 按场馆分块并行执行
+     *
+     * @return 重建的场馆数
+     */
+    int rebuild();
+
+    /**
+     * 按天汇总
+     *
+     * @param venueID 0表示全部场馆
+     * @param from
+     * @param to
+     * @param states 计入的订单状态
+     * @return
+     */
+    List<VenueRollup> findDaily(int venueID, LocalDate from, LocalDate to, Collection<Integer> states);
+
+    List<VenueRollup> findMonthly(int venueID, LocalDate from, LocalDate to, Collection<Integer> states);
+}
@@ -1,11 +1,19 @@
 package com.demo.service;
 
 import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.CartItem;
+import com.demo.entity.vo.SeriesResult;
+import com.demo.entity.vo.VenueCalendar;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 public interface OrderService {
     int STATE_NO_AUDIT=1;
@@ -13,6 +21,28 @@ public interface OrderService {
     int STATE_FINISH=3;
     int STATE_REJECT=4;
 
+    /**
+     * 批量审核时每个订单的处理结果
+     */
+    String RESULT_OK="ok";
+    String RESULT_CONFLICT="conflict";
+    String RESULT_NOT_FOUND="not_found";
+
+    /**
+     * 预约日历一次最多查询的天数
+     */
+    int MAX_CALENDAR_DAYS=28;
+
+    /**
+     * 购物车一次最多提交的时段数
+     */
+    int MAX_CART_ITEMS=20;
+
+    /**
+     * 周期预约最多覆盖的周数
+     */
+    int MAX_SERIES_WEEKS=26;
+
     /**
      * 根据orderID查看订单
      *
@@ -24,13 +54,39 @@ public interface OrderService {
 
     Page<Order> findNoAuditOrder(Pageable pageable);
 
-    List<Order> findAuditOrder();
+    /**
+     * 分页查看已审核(已通过和已完成)的订单
+     * @param pageable
+     * @return
+     */
+    Page<Order> findAuditOrder(Pageable pageable);
 
 
     List<Order> findDateOrder(int venueID, LocalDateTime startTime, LocalDateTime startTime2);
 
     Page<Order> findUserOrder(String userID,Pageable pageable);
 
+    /**
+     * 场馆从from开始连续days天的开放、已预约和被他人预留的时段, 从内存索引读取
+     * @param venue
+     * @param from
+     * @param days 1到MAX_CALENDAR_DAYS
+     * @param userID 当前用户, 其自己的预留不计入held, 未登录时为null
+     * @return
+     */
+    VenueCalendar findCalendar(Venue venue, LocalDate from, int days, String userID);
+
+    /**
+     * 游标分页查看未审核订单, 按下单时间倒序
+     * @param orderTime 上一页最后一条的下单时间
+     * @param orderID 上一页最后一条的订单ID
+     * @param size
+     * @return
+     */
+    List<Order> findNoAuditOrderSeek(LocalDateTime orderTime, int orderID, int size);
+
+    List<Order> findUserOrderSeek(String userID, LocalDateTime orderTime, int orderID, int size);
+
     void updateOrder(int orderID,String venueName, LocalDateTime startTime, int hours, String userID);
     /**
      * 新建订单
@@ -40,6 +96,56 @@ public interface OrderService {
      */
     void submit(String venueName, LocalDateTime startTime, int hours, String userID);
 
+    /**
+     * 把预留转为订单, 预留不存在、已过期或不属于该用户时抛出SlotConflictException
+     * @param holdID
+     * @param userID
+     */
+    void submitHold(String holdID, String userID);
+
+    /**
+     * 购物车一次提交多个时段, 全部通过占用检查后在同一事务中批量插入, 任一时段冲突则全部不生效
+     * @param items 最多MAX_CART_ITEMS个
+     * @param userID
+     * @return 新订单, 顺序与items一致
+     */
+    List<Order> submitCart(List<CartItem> items, String userID);
+
+    /**
+     * 周期预约: 在[from, to]内每周的dayOfWeek同一时段各生成一个订单, 共用一个系列号
+     * 所有日期用一次范围查询检查占用, 冲突的日期跳过并返回, 其余批量插入
+     * @param venueName
+     * @param dayOfWeek
+     * @param startTime 每次的开始时间
+     * @param hours
+     * @param from
+     * @param to 包含, 最多MAX_SERIES_WEEKS周
+     * @param userID
+     * @return
+     */
+    SeriesResult submitSeries(String venueName, DayOfWeek dayOfWeek, LocalTime startTime, int hours,
+                              LocalDate from, LocalDate to, String userID);
+
+    /**
+     * 批量写入已分配好的订单, 如抽签结果; 调用方保证时段互不重叠且未被占用, 台账唯一键兜底
+     * @param orders 写入后回填orderID
+     */
+    void submitAllocated(List<Order> orders);
+
+    /**
+     * 整个系列中未审核的订单一次通过
+     * @param seriesID
+     * @return 订单ID -> 处理结果
+     */
+    Map<Integer,String> confirmSeries(String seriesID);
+
+    /**
+     * 整个系列中未完成的订单一次驳回
+     * @param seriesID
+     * @return 订单ID -> 处理结果
+     */
+    Map<Integer,String> rejectSeries(String seriesID);
+
     /**
      * 删除订单
      * @param orderID
@@ -47,20 +153,67 @@ public interface OrderService {
     void delOrder(int orderID);
 
     /**
-     * 通过订单
+     * 通过订单, 只允许未审核的订单
      * @param orderID
+     * @throws com.demo.exception.StateConflictException 订单状态不允许
      */
     void confirmOrder(int orderID);
 
     /**
-     * 完成订单
+     * 完成订单, 只允许已审核的订单
      * @param orderID
+     * @throws com.demo.exception.StateConflictException 订单状态不允许
      */
     void finishOrder(int orderID);
 
     /**
-     *拒绝预定
+     *拒绝预定, 只允许未审核或已审核的订单
      * @param orderID
+     * @throws com.demo.exception.StateConflictException 订单状态不允许
      */
     void rejectOrder(int orderID);
+
+    /**
+     * 批量通过订单, 每批一条UPDATE
+     * @param orderIDs
+     * @return 订单ID -> 处理结果
+     */
+    Map<Integer,String> confirmOrders(List<Integer> orderIDs);
+
+    /**
+     * 批量拒绝订单, 每批一条UPDATE
+     * @param orderIDs
+     * @return 订单ID -> 处理结果
+     */
+    Map<Integer,String> rejectOrders(List<Integer> orderIDs);
+
+    /**
+     * 批量完成已审核的订单
+     * @param orderIDs
+     * @return 订单ID -> 处理结果
+     */
+    Map<Integer,String> finishOrders(List<Integer> orderIDs);
+
+    /**
+     * 批量作废未审核的订单
+     * @param orderIDs
+     * @return 订单ID -> 处理结果
+     */
+    Map<Integer,String> expireOrders(List<Integer> orderIDs);
+
+    /**
+     * 把开始时间早于before的已完成和失效订单移到历史表, 一次最多limit个
+     * @param before
+     * @param limit
+     * @return 归档的订单数
+     */
+    int archiveOrders(LocalDateTime before, int limit);
+
+    /**
+     * 某场馆某天开始的未审核订单
+     * @param venueID
+     * @param date
+     * @return
+     */
+    List<Integer> findNoAuditOrderID(int venueID, LocalDate date);
 }
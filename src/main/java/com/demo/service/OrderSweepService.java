@@ -0,0 +1,21 @@
+package com.demo.service;
+
+import com.demo.entity.vo.SweepStats;
+
+/**
+ * 定时清理已过结束时间的订单: 已审核的置为已完成, 未审核的置为失效
+ */
+public interface OrderSweepService {
+
+    /**
+     * 分批处理全部过期订单
+     */
+    void sweep();
+
+    /**
+     * 累计处理的订单数和耗时
+     *
+     * @return
+     */
+    SweepStats getStats();
+}
@@ -0,0 +1,38 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+
+import java.util.List;
+
+/**
+ * 用户预约配额: 每周的有效订单数和每个场馆每天的有效订单数, 按订单开始时间计算
+ * 计数保存在内存中, 启动时一次聚合查询重建, 订单生效和失效时增量维护, 下单时不查询订单表
+ * 计数按节点保存, 多节点部署时只有定期重算才能看到其他节点的订单, 两次重算之间用户分散在多个节点下单可能短暂超出配额
+ */
+public interface QuotaService {
+
+    /**
+     * 检查并计入一批订单, 任一用户超出配额时抛出异常且不做修改
+     *
+     * @param orders 同一批下单的订单
+     */
+    void acquire(List<Order> orders);
+
+    /**
+     * 不做检查直接计入(sign为1)或移出(sign为-1)
+     *
+     * @param order
+     * @param sign
+     */
+    void add(Order order, int sign);
+
+    /**
+     * 启动时重建本周及以后的计数, 日志已恢复时直接使用恢复出的订单
+     */
+    void load();
+
+    /**
+     * 从订单表重算本周及以后的计数, 替换内存中的计数
+     */
+    void resync();
+}
@@ -0,0 +1,64 @@
+package com.demo.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 分页总数缓存: 按 表:过滤条件 记录行数, 分页时不再每次执行 COUNT(*)
+ * 新增、删除和状态变更时由各个service维护, 无法确定变化量时直接清除
+ */
+public interface RowCountService {
+
+    /**
+     * 读取缓存的行数, 未缓存时用loader查询一次数据库
+     *
+     * @param key 如 order:state:1
+     * @param loader
+     * @return
+     */
+    long count(String key, LongSupplier loader);
+
+    /**
+     * 调整行数, 在当前事务提交后生效, 没有事务时立即生效; 未缓存的key忽略
+     *
+     * @param key
+     * @param delta
+     */
+    void add(String key, long delta);
+
+    /**
+     * 清除以prefix开头的缓存, 下次读取时重新查询
+     *
+     * @param prefix
+     */
+    void evict(String prefix);
+
+    /**
+     * 用只查当前页的Slice和缓存的总数组装Page, 最后一页时总数可以直接算出, 不读缓存
+     *
+     * @param slice
+     * @param pageable
+     * @param key
+     * @param loader
+     * @return
+     */
+    default <T> Page<T> page(Slice<T> slice, Pageable pageable, String key, LongSupplier loader) {
+        return page(slice, pageable, () -> count(key, loader));
+    }
+
+    /**
+     * 同上, 总数由多个缓存组合而成时使用
+     *
+     * @param slice
+     * @param pageable
+     * @param total 只在不是最后一页时调用
+     * @return
+     */
+    default <T> Page<T> page(Slice<T> slice, Pageable pageable, LongSupplier total) {
+        return PageableExecutionUtils.getPage(slice.getContent(), pageable, total);
+    }
+}
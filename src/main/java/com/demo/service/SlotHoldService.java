@@ -0,0 +1,64 @@
+package com.demo.service;
+
+import com.demo.entity.vo.SlotHold;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 时段临时预留: 用户选中时段后保留若干分钟, 期间其他用户不能预约或预留, 只保存在内存中
+ */
+public interface SlotHoldService {
+
+    /**
+     * 预留时段, 同一用户在该场馆与之重叠的旧预留会被替换
+     *
+     * @param userID
+     * @param venueID
+     * @param startTime
+     * @param hours
+     * @return 新的预留
+     */
+    SlotHold hold(String userID, int venueID, LocalDateTime startTime, int hours);
+
+    /**
+     * 用户主动取消预留, 预留不存在或不属于该用户时忽略
+     *
+     * @param holdID
+     * @param userID
+     */
+    void release(String holdID, String userID);
+
+    /**
+     * 取出预留用于下单, 取出后预留即被移除
+     *
+     * @param holdID
+     * @param userID
+     * @return
+     */
+    SlotHold take(String holdID, String userID);
+
+    /**
+     * 下单失败回滚时放回取出的预留
+     *
+     * @param hold
+     */
+    void restore(SlotHold hold);
+
+    /**
+     * 其他用户的预留是否与该时段重叠
+     *
+     * @param exceptUserID 不计入此用户自己的预留, 可以为null
+     */
+    boolean isHeld(int venueID, LocalDateTime startTime, int hours, String exceptUserID);
+
+    /**
+     * 场馆某天被其他用户预留的小时位图
+     */
+    int heldHours(int venueID, LocalDate day, String exceptUserID);
+
+    /**
+     * 释放已到期的预留
+     */
+    void expire();
+}
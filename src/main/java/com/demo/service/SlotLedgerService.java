@@ -0,0 +1,61 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预约时段台账: slot_usage 每个场馆每小时一行计数, 用一条 used<容量 的条件UPDATE占用场地,
+ * 多个节点同时下单也不会超过场馆容量; order_slot 记录每个订单占用的小时, 释放时据此归还
+ */
+public interface SlotLedgerService {
+
+    /**
+     * 在当前事务中写入订单占用的时段
+     *
+     * @param order 已保存的订单
+     * @throws com.demo.exception.SlotConflictException 时段内已没有空闲场地
+     */
+    void occupy(Order order);
+
+    /**
+     * 批量写入多个订单占用的时段, 任一时段冲突时抛出异常, 由调用方回滚整个事务
+     *
+     * @param orders 已保存的订单
+     * @throws com.demo.exception.SlotConflictException
+     */
+    void occupyAll(List<Order> orders);
+
+    /**
+     * 释放订单占用的全部时段
+     *
+     * @param orderID
+     */
+    void release(int orderID);
+
+    void releaseAll(Collection<Integer> orderIDs);
+
+    /**
+     * 时段内是否有已约满的小时, 直接查询台账
+     */
+    boolean isTaken(int venueID, LocalDateTime startTime, int hours);
+
+    /**
+     * 场馆在[from, to)内已约满的全部小时, 一次范围查询
+     */
+    Set<LocalDateTime> findTaken(int venueID, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 场馆在[from, to)内每个小时已占用的场地数, 没有占用的小时不在结果中
+     */
+    Map<LocalDateTime, Integer> findUsed(int venueID, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 场馆从from开始各小时已占用场地数的最大值, 用于检查容量能否下调
+     */
+    int findMaxUsed(int venueID, LocalDateTime from);
+}
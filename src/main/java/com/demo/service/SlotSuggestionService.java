@@ -0,0 +1,21 @@
+package com.demo.service;
+
+import com.demo.entity.Order;
+import com.demo.entity.vo.SlotAlternative;
+
+import java.util.List;
+
+/**
+ * 预约冲突时从占用索引中查找最近的可选时段, 检查次数有上限, 不查询订单表
+ */
+public interface SlotSuggestionService {
+
+    /**
+     * 同一场馆前后最近的空闲时段, 以及其他场馆同一时段的空闲场馆
+     *
+     * @param order 冲突的订单, 使用其场馆、开始时间和时长
+     * @param limit 每类最多返回的条数
+     * @return 先同场馆(按时间距离), 后其他场馆(按总价)
+     */
+    List<SlotAlternative> suggest(Order order, int limit);
+}
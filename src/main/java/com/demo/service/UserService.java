@@ -4,6 +4,8 @@ import com.demo.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface UserService {
     /**
      * 根据用户id查找用户
@@ -21,6 +23,15 @@ public interface UserService {
      */
     Page<User> findByUserID(Pageable pageable);
 
+    /**
+     * 管理员游标分页查看用户, 按id正序
+     *
+     * @param id 上一页最后一个用户的id
+     * @param size
+     * @return
+     */
+    List<User> findByUserIDSeek(int id, int size);
+
     /**
      * 检查登录
      *
@@ -1,9 +1,11 @@
 package com.demo.service;
 
 import com.demo.entity.Venue;
+import com.demo.entity.vo.FreeVenue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface VenueService {
@@ -24,6 +26,14 @@ public interface VenueService {
     Page<Venue> findAll(Pageable pageable);
 
     List<Venue> findAll();
+
+    /**
+     * 游标分页查看场馆, 按venueID正序
+     * @param venueID 上一页最后一个场馆的id
+     * @param size
+     * @return
+     */
+    List<Venue> findSeek(int venueID, int size);
     /**
      * 创建新的场馆
      *
@@ -47,4 +57,25 @@ public interface VenueService {
     void delById(int id);
 
     int countVenueName(String venueName);
+
+    /**
+     * 场馆从当前小时起各小时已占用场地数的最大值, 下调容量时不能低于它
+     *
+     * @param venueID
+     * @return
+     */
+    int findMaxBooked(int venueID);
+
+    /**
+     * 查找某天[fromHour, toHour)内有连续hours小时空闲的场馆, 一次遍历占用索引完成
+     *
+     * @param day
+     * @param fromHour 窗口开始的整点
+     * @param toHour 窗口结束的整点, 最大24
+     * @param hours 预约时长
+     * @param maxPrice 每小时价格上限, null表示不限
+     * @param keyword 地址关键字, 为空表示不限
+     * @return 按总价从低到高排序
+     */
+    List<FreeVenue> findFree(LocalDate day, int fromHour, int toHour, int hours, Integer maxPrice, String keyword);
 }
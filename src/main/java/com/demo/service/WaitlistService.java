@@ -0,0 +1,50 @@
+package com.demo.service;
+
+import com.demo.entity.WaitlistEntry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 候补队列, 数据表持久化, 内存中按场馆和小时索引, 时段释放时不需要查表
+ */
+public interface WaitlistService {
+
+    /**
+     * 加入候补, 时段当前空闲或已在队列中时抛出异常
+     *
+     * @param userID
+     * @param venueID
+     * @param startTime
+     * @param hours
+     * @return
+     */
+    WaitlistEntry join(String userID, int venueID, LocalDateTime startTime, int hours);
+
+    /**
+     * 退出候补, 不存在或不属于该用户时忽略
+     *
+     * @param id
+     * @param userID
+     */
+    void leave(int id, String userID);
+
+    List<WaitlistEntry> findByUser(String userID);
+
+    /**
+     * 与释放的时段重叠、开始时间未过的候补, 按加入顺序排列
+     */
+    List<WaitlistEntry> candidates(int venueID, LocalDateTime startTime, int hours);
+
+    /**
+     * 候补已转为订单, 在当前事务中删除, 提交后移出内存队列
+     *
+     * @param entry
+     */
+    void promoted(WaitlistEntry entry);
+
+    /**
+     * 清理开始时间已过的候补
+     */
+    void purge();
+}
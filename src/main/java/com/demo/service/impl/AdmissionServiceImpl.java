@@ -0,0 +1,199 @@
+package com.demo.service.impl;
+
+import com.demo.entity.vo.AdmissionTicket;
+import com.demo.service.AdmissionService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class AdmissionServiceImpl implements AdmissionService {
+    /**
+     * 后台处理的时间片, 每片按速率累计可处理的请求数
+     */
+    private static final long TICK_MILLIS = 100;
+
+    /**
+     * 已处理的请求保留多久供用户查询结果
+     */
+    private static final long RESULT_MINUTES = 30;
+
+    /**
+     * 每隔多少个时间片清理一次过期的处理结果
+     */
+    private static final long PURGE_TICKS = 600;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${order.admission.enabled:false}")
+    private volatile boolean open;
+
+    @Value("${order.admission.capacity:500}")
+    private int capacity;
+
+    /**
+     * 每秒处理的请求数
+     */
+    @Value("${order.admission.rate:20}")
+    private int rate;
+
+    private ArrayBlockingQueue<AdmissionTicket> queue;
+
+    private final ConcurrentHashMap<String, AdmissionTicket> tickets = new ConcurrentHashMap<>();
+
+    private final AtomicLong issued = new AtomicLong();
+
+    private final AtomicLong served = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    private double credit;
+
+    private long ticks;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "admission");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+
+    @Override
+    public AdmissionTicket enqueue(String userID, String venueName, LocalDateTime startTime, int hours) {
+        AdmissionTicket ticket = new AdmissionTicket();
+        ticket.setUserID(userID);
+        ticket.setVenueName(venueName);
+        ticket.setStartTime(startTime);
+        ticket.setHours(hours);
+        ticket.setState(AdmissionTicket.STATE_WAITING);
+        // 检查和替换在同一个compute中完成, 同一用户并发的两个请求只有一个能排上
+        tickets.compute(userID, (key, previous) -> {
+            if (previous != null && AdmissionTicket.STATE_WAITING.equals(previous.getState())) {
+                throw new RuntimeException("您已在排队中，请等待上一个预约处理完成");
+            }
+            return ticket;
+        });
+        // 序号和入队需要一致的顺序, 否则排队位置会错位
+        synchronized (queue) {
+            ticket.setSeq(issued.incrementAndGet());
+            if (!queue.offer(ticket)) {
+                issued.decrementAndGet();
+                tickets.remove(userID, ticket);
+                throw new RuntimeException("排队人数已满，请稍后再试");
+            }
+        }
+        return view(ticket);
+    }
+
+    @Override
+    public AdmissionTicket status(String userID) {
+        AdmissionTicket ticket = tickets.get(userID);
+        if (ticket == null) {
+            return null;
+        }
+        if (expired(ticket, LocalDateTime.now())) {
+            tickets.remove(userID, ticket);
+            return null;
+        }
+        return view(ticket);
+    }
+
+    /**
+     * 清理超过保留时间的处理结果, 不再查询的用户也不会一直占用内存
+     */
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        tickets.values().removeIf(ticket -> expired(ticket, now));
+    }
+
+    @Override
+    public int drain(int max) {
+        int count = 0;
+        AdmissionTicket ticket;
+        while (count < max && (ticket = queue.poll()) != null) {
+            try {
+                orderService.submit(ticket.getVenueName(), ticket.getStartTime(), ticket.getHours(), ticket.getUserID());
+                ticket.setState(AdmissionTicket.STATE_DONE);
+            } catch (RuntimeException e) {
+                ticket.setMessage(e.getMessage());
+                ticket.setState(AdmissionTicket.STATE_FAILED);
+            }
+            ticket.setFinishTime(LocalDateTime.now());
+            // 重新写回map, 让查询线程看到处理结果
+            tickets.replace(ticket.getUserID(), ticket, ticket);
+            served.incrementAndGet();
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int queued() {
+        return queue.size();
+    }
+
+    /**
+     * 令牌按速率累计, 队列空时不累计, 避免空闲后突发一大批写入
+     */
+    private void tick() {
+        if (++ticks % PURGE_TICKS == 0) {
+            purge();
+        }
+        if (queue.isEmpty()) {
+            credit = 0;
+            return;
+        }
+        credit += rate * TICK_MILLIS / 1000.0;
+        int permits = (int) credit;
+        if (permits > 0) {
+            credit -= drain(permits);
+        }
+    }
+
+    private static boolean expired(AdmissionTicket ticket, LocalDateTime now) {
+        return ticket.getFinishTime() != null && ticket.getFinishTime().plusMinutes(RESULT_MINUTES).isBefore(now);
+    }
+
+    private AdmissionTicket view(AdmissionTicket ticket) {
+        AdmissionTicket copy = new AdmissionTicket();
+        copy.setUserID(ticket.getUserID());
+        copy.setVenueName(ticket.getVenueName());
+        copy.setStartTime(ticket.getStartTime());
+        copy.setHours(ticket.getHours());
+        copy.setState(ticket.getState());
+        copy.setMessage(ticket.getMessage());
+        copy.setPosition(AdmissionTicket.STATE_WAITING.equals(ticket.getState()) ? Math.max(1, ticket.getSeq() - served.get()) : 0);
+        return copy;
+    }
+}
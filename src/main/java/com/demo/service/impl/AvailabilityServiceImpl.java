@@ -0,0 +1,315 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.service.AvailabilityService;
+import com.demo.service.OrderJournalService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private VenueDao venueDao;
+
+    @Autowired
+    private OrderJournalService orderJournalService;
+
+    private final ConcurrentHashMap<Integer, VenueSlots> venues = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Integer, Order> bookings = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        for (Venue venue : venueDao.findAll()) {
+            setCapacity(venue.getVenueID(), venue.getCapacity());
+        }
+        // 有快照和日志时直接恢复, 否则扫描订单表, 并以此为起点开始记录日志
+        Collection<Order> orders;
+        if (orderJournalService.isRecovered()) {
+            orders = orderJournalService.recovered();
+        } else {
+            orders = orderDao.findAllByStateIn(Arrays.asList(OrderService.STATE_NO_AUDIT, OrderService.STATE_WAIT));
+            orderJournalService.reset(orders);
+        }
+        for (Order order : orders) {
+            book(order);
+        }
+    }
+
+    @Override
+    public boolean tryBook(Order order) {
+        Order snapshot = copy(order);
+        if (!slots(order.getVenueID()).tryAdd(snapshot)) {
+            return false;
+        }
+        Order previous = bookings.put(snapshot.getOrderID(), snapshot);
+        if (previous != null) {
+            slots(previous.getVenueID()).remove(previous);
+        }
+        return true;
+    }
+
+    @Override
+    public void book(Order order) {
+        Order snapshot = copy(order);
+        slots(order.getVenueID()).add(snapshot);
+        Order previous = bookings.put(snapshot.getOrderID(), snapshot);
+        if (previous != null) {
+            slots(previous.getVenueID()).remove(previous);
+        }
+    }
+
+    @Override
+    public Order release(int orderID) {
+        Order order = bookings.remove(orderID);
+        if (order != null) {
+            slots(order.getVenueID()).remove(order);
+        }
+        return order;
+    }
+
+    @Override
+    public boolean isFree(int venueID, LocalDateTime startTime, int hours) {
+        VenueSlots slots = venues.get(venueID);
+        return slots == null || slots.isFree(spread(startTime, hours));
+    }
+
+    @Override
+    public int remaining(int venueID, LocalDateTime startTime, int hours) {
+        VenueSlots slots = venues.get(venueID);
+        return slots == null ? 1 : slots.remaining(spread(startTime, hours));
+    }
+
+    @Override
+    public void setCapacity(int venueID, int capacity) {
+        slots(venueID).setCapacity(Math.max(1, capacity));
+    }
+
+    @Override
+    public int takenHours(int venueID, LocalDate day) {
+        VenueSlots slots = venues.get(venueID);
+        return slots == null ? 0 : slots.mask(day);
+    }
+
+    @Override
+    public Map<Integer, Integer> takenHours(LocalDate day) {
+        Map<Integer, Integer> masks = new HashMap<>();
+        for (Map.Entry<Integer, VenueSlots> entry : venues.entrySet()) {
+            int mask = entry.getValue().mask(day);
+            if (mask != 0) {
+                masks.put(entry.getKey(), mask);
+            }
+        }
+        return masks;
+    }
+
+    @Override
+    public List<Order> findDateOrder(int venueID, LocalDateTime startTime, LocalDateTime startTime2) {
+        List<Order> list = new ArrayList<>();
+        VenueSlots slots = venues.get(venueID);
+        if (slots == null) {
+            return list;
+        }
+        for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(startTime2); day = day.plusDays(1)) {
+            for (Order order : slots.startingOn(day)) {
+                if (!order.getStartTime().isBefore(startTime) && order.getStartTime().isBefore(startTime2)) {
+                    list.add(copy(order));
+                }
+            }
+        }
+        return list;
+    }
+
+    private VenueSlots slots(int venueID) {
+        return venues.computeIfAbsent(venueID, id -> new VenueSlots());
+    }
+
+    /**
+     * 把从startTime开始的hours个小时拆成每天的小时位图
+     */
+    static Map<LocalDate, Integer> spread(LocalDateTime startTime, int hours) {
+        Map<LocalDate, Integer> days = new LinkedHashMap<>();
+        LocalDateTime hour = startTime.truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < hours; i++, hour = hour.plusHours(1)) {
+            days.merge(hour.toLocalDate(), 1 << hour.getHour(), (a, b) -> a | b);
+        }
+        return days;
+    }
+
+    private static Order copy(Order order) {
+        Order copy = new Order();
+        copy.setOrderID(order.getOrderID());
+        copy.setUserID(order.getUserID());
+        copy.setVenueID(order.getVenueID());
+        copy.setState(order.getState());
+        copy.setOrderTime(order.getOrderTime());
+        copy.setStartTime(order.getStartTime());
+        copy.setHours(order.getHours());
+        copy.setTotal(order.getTotal());
+        return copy;
+    }
+
+    /**
+     * 单个场馆的占用情况, 同一场馆的读写串行, 不同场馆互不影响
+     */
+    private static class VenueSlots {
+        private final Map<LocalDate, Day> days = new HashMap<>();
+
+        private int capacity = 1;
+
+        synchronized boolean isFree(Map<LocalDate, Integer> wanted) {
+            for (Map.Entry<LocalDate, Integer> entry : wanted.entrySet()) {
+                Day day = days.get(entry.getKey());
+                if (day != null && (day.mask & entry.getValue()) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 所有小时中剩余场地数的最小值
+         */
+        synchronized int remaining(Map<LocalDate, Integer> wanted) {
+            int min = capacity;
+            for (Map.Entry<LocalDate, Integer> entry : wanted.entrySet()) {
+                Day day = days.get(entry.getKey());
+                if (day == null) {
+                    continue;
+                }
+                for (int hour = 0; hour < 24; hour++) {
+                    if ((entry.getValue() >> hour & 1) != 0) {
+                        min = Math.min(min, capacity - day.used[hour]);
+                    }
+                }
+            }
+            return Math.max(0, min);
+        }
+
+        synchronized void setCapacity(int capacity) {
+            this.capacity = capacity;
+            for (Day day : days.values()) {
+                day.refresh(capacity);
+            }
+        }
+
+        synchronized boolean tryAdd(Order order) {
+            Map<LocalDate, Integer> wanted = spread(order.getStartTime(), order.getHours());
+            if (!isFree(wanted)) {
+                return false;
+            }
+            add(order, wanted);
+            return true;
+        }
+
+        synchronized void add(Order order) {
+            add(order, spread(order.getStartTime(), order.getHours()));
+        }
+
+        private void add(Order order, Map<LocalDate, Integer> wanted) {
+            for (Map.Entry<LocalDate, Integer> entry : wanted.entrySet()) {
+                Day day = days.computeIfAbsent(entry.getKey(), d -> new Day());
+                day.orders.add(order);
+                day.count(entry.getValue(), 1, capacity);
+            }
+        }
+
+        synchronized void remove(Order order) {
+            for (Map.Entry<LocalDate, Integer> entry : spread(order.getStartTime(), order.getHours()).entrySet()) {
+                Day day = days.get(entry.getKey());
+                if (day == null || !day.remove(order)) {
+                    continue;
+                }
+                if (day.orders.isEmpty()) {
+                    days.remove(entry.getKey());
+                    continue;
+                }
+                day.count(entry.getValue(), -1, capacity);
+            }
+        }
+
+        synchronized int mask(LocalDate date) {
+            Day day = days.get(date);
+            return day == null ? 0 : day.mask;
+        }
+
+        synchronized List<Order> startingOn(LocalDate date) {
+            List<Order> list = new ArrayList<>();
+            Day day = days.get(date);
+            if (day != null) {
+                for (Order order : day.orders) {
+                    if (order.getStartTime().toLocalDate().equals(date)) {
+                        list.add(order);
+                    }
+                }
+            }
+            return list;
+        }
+    }
+
+    private static class Day {
+        /**
+         * 已约满的小时位图
+         */
+        private int mask;
+
+        /**
+         * 每个小时的订单数, 历史数据里可能有重叠订单, 按计数而不是位图维护, 删除时不会误清
+         */
+        private final int[] used = new int[24];
+
+        private final List<Order> orders = new ArrayList<>(2);
+
+        void count(int hours, int delta, int capacity) {
+            for (int hour = 0; hour < 24; hour++) {
+                if ((hours >> hour & 1) != 0) {
+                    used[hour] += delta;
+                }
+            }
+            refresh(capacity);
+        }
+
+        void refresh(int capacity) {
+            int full = 0;
+            for (int hour = 0; hour < 24; hour++) {
+                if (used[hour] >= capacity) {
+                    full |= 1 << hour;
+                }
+            }
+            mask = full;
+        }
+
+        /**
+         * 按引用删除, Order的equals比较的是字段值
+         */
+        boolean remove(Order order) {
+            for (int i = 0; i < orders.size(); i++) {
+                if (orders.get(i) == order) {
+                    orders.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
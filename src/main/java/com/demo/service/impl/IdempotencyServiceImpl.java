@@ -0,0 +1,83 @@
+package com.demo.service.impl;
+
+import com.demo.service.IdempotencyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    /**
+     * 记录保留的分钟数, 覆盖用户刷新和浏览器重发的时间即可
+     */
+    @Value("${order.idempotency.minutes:10}")
+    private int minutes;
+
+    /**
+     * scope:key -> 执行结果, 只保存结果的引用, 过期后定时清理
+     */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, String fingerprint, Supplier<T> action) {
+        if (key == null || key.isEmpty()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("请求标识无效");
+        }
+        String id = scope + ":" + key;
+        long now = System.currentTimeMillis();
+        Entry created = new Entry(now + minutes * 60_000L, fingerprint);
+        Entry entry = entries.compute(id, (k, old) -> old != null && old.expiresAt > now ? old : created);
+        if (entry != created) {
+            if (!Objects.equals(entry.fingerprint, fingerprint)) {
+                throw new RuntimeException("请求标识已用于其他内容，请刷新页面后重新提交");
+            }
+            try {
+                return (T) entry.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            T result = action.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(id, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-delay:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now && entry.result.isDone());
+    }
+
+    private static class Entry {
+        private final long expiresAt;
+
+        /**
+         * 第一次请求的内容, 重试必须与之相同
+         */
+        private final String fingerprint;
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(long expiresAt, String fingerprint) {
+            this.expiresAt = expiresAt;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
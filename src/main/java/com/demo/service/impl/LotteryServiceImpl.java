@@ -0,0 +1,231 @@
+package com.demo.service.impl;
+
+import com.demo.dao.LotteryBidDao;
+import com.demo.dao.LotteryDao;
+import com.demo.dao.VenueDao;
+import com.demo.entity.Lottery;
+import com.demo.entity.LotteryBid;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.exception.StateConflictException;
+import com.demo.service.LotteryService;
+import com.demo.service.OrderService;
+import com.demo.service.SlotLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.transaction.Transactional;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Service
+public class LotteryServiceImpl implements LotteryService {
+    private static final Logger log = LoggerFactory.getLogger(LotteryServiceImpl.class);
+
+    @Autowired
+    private LotteryDao lotteryDao;
+
+    @Autowired
+    private LotteryBidDao lotteryBidDao;
+
+    @Autowired
+    private VenueDao venueDao;
+
+    @Autowired
+    private SlotLedgerService slotLedgerService;
+
+    /**
+     * 下单检查依赖本服务判断抽签时段, 这里延迟注入以避免循环依赖
+     */
+    @Lazy
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 未开奖的抽签, 数量很少, 每次下单检查时直接遍历; 定时开奖时整体重新加载, 以同步其他节点新开设的抽签
+     */
+    private volatile List<Lottery> open = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void load() {
+        open = new CopyOnWriteArrayList<>(lotteryDao.findAllByState(STATE_OPEN));
+    }
+
+    @Override
+    public Lottery create(int venueID, LocalDateTime slotFrom, LocalDateTime slotTo, LocalDateTime closeTime) {
+        if (!slotFrom.isBefore(slotTo) || closeTime.isAfter(slotFrom)) {
+            throw new RuntimeException("抽签时间无效");
+        }
+        if (venueDao.findByVenueID(venueID) == null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        for (Lottery other : lotteryDao.findAllByVenueIDAndState(venueID, STATE_OPEN)) {
+            if (slotFrom.isBefore(other.getSlotTo()) && other.getSlotFrom().isBefore(slotTo)) {
+                throw new RuntimeException("与未开奖的抽签时段重叠");
+            }
+        }
+        Lottery lottery = lotteryDao.save(new Lottery(0, venueID, slotFrom, slotTo, closeTime, STATE_OPEN,
+                new SecureRandom().nextLong(), null));
+        open.add(lottery);
+        return lottery;
+    }
+
+    @Override
+    @Transactional
+    public List<LotteryBid> bid(int lotteryID, String userID, List<LocalDateTime> startTimes, int hours) {
+        Lottery lottery = lotteryDao.findByLotteryID(lotteryID);
+        if (lottery == null || lottery.getState() != STATE_OPEN || !LocalDateTime.now().isBefore(lottery.getCloseTime())) {
+            throw new RuntimeException("该抽签已截止");
+        }
+        if (startTimes == null || startTimes.isEmpty() || startTimes.size() > MAX_CHOICES) {
+            throw new RuntimeException("请填写1到" + MAX_CHOICES + "个候选时段");
+        }
+        if (hours <= 0 || new HashSet<>(startTimes).size() < startTimes.size()) {
+            throw new RuntimeException("候选时段无效");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<LotteryBid> bids = new ArrayList<>();
+        for (int i = 0; i < startTimes.size(); i++) {
+            LocalDateTime start = startTimes.get(i);
+            if (start.isBefore(lottery.getSlotFrom()) || start.plusHours(hours).isAfter(lottery.getSlotTo())) {
+                throw new RuntimeException("候选时段不在抽签范围内");
+            }
+            bids.add(new LotteryBid(0, lotteryID, userID, i + 1, start, hours, null, now));
+        }
+        lotteryBidDao.deleteByLotteryIDAndUserID(lotteryID, userID);
+        return lotteryBidDao.saveAll(bids);
+    }
+
+    @Override
+    public List<LotteryBid> findBids(int lotteryID, String userID) {
+        return lotteryBidDao.findAllByLotteryIDAndUserIDOrderByChoiceAsc(lotteryID, userID);
+    }
+
+    @Override
+    public List<Lottery> findOpen(int venueID) {
+        return lotteryDao.findAllByVenueIDAndState(venueID, STATE_OPEN);
+    }
+
+    @Override
+    @Transactional
+    public int draw(int lotteryID) {
+        return allocate(lotteryID);
+    }
+
+    /**
+     * 每个抽签单独一个事务, 一个开奖失败只记录日志, 不影响后面的抽签和内存中开放列表的刷新
+     */
+    @Override
+    @Scheduled(initialDelayString = "${order.lottery.draw-delay:60000}", fixedDelayString = "${order.lottery.draw-delay:60000}")
+    public void drawDue() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            for (Integer lotteryID : lotteryDao.findIDByStateAndCloseTimeBefore(STATE_OPEN, LocalDateTime.now())) {
+                try {
+                    transaction.execute(status -> allocate(lotteryID));
+                } catch (StateConflictException e) {
+                    // 其他节点已经开奖
+                } catch (RuntimeException e) {
+                    log.warn("抽签{}开奖失败", lotteryID, e);
+                }
+            }
+        } finally {
+            load();
+        }
+    }
+
+    @Override
+    public boolean isReserved(int venueID, LocalDateTime startTime, int hours) {
+        LocalDateTime end = startTime.plusHours(hours);
+        for (Lottery lottery : open) {
+            if (lottery.getVenueID() == venueID && startTime.isBefore(lottery.getSlotTo()) && lottery.getSlotFrom().isBefore(end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 随机顺序逐个用户分配: 已被占用或已分给前面用户的候选跳过, 落选的志愿自动顺延到下一个候选
+     * 中签订单一次批量插入
+     */
+    private int allocate(int lotteryID) {
+        Lottery lottery = lotteryDao.findForUpdate(lotteryID);
+        if (lottery == null) {
+            throw new RuntimeException("抽签不存在");
+        }
+        if (lottery.getState() != STATE_OPEN) {
+            throw new StateConflictException("该抽签已开奖");
+        }
+        Map<String, List<LotteryBid>> byUser = new LinkedHashMap<>();
+        for (LotteryBid bid : lotteryBidDao.findAllByLotteryIDOrderByUserIDAscChoiceAsc(lotteryID)) {
+            byUser.computeIfAbsent(bid.getUserID(), k -> new ArrayList<>()).add(bid);
+        }
+        List<String> users = new ArrayList<>(byUser.keySet());
+        Collections.shuffle(users, new Random(lottery.getSeed()));
+
+        Venue venue = venueDao.findByVenueID(lottery.getVenueID());
+        if (venue == null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        Map<LocalDateTime, Integer> used = slotLedgerService.findUsed(lottery.getVenueID(), lottery.getSlotFrom(), lottery.getSlotTo());
+        int capacity = Math.max(1, venue.getCapacity());
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = new ArrayList<>();
+        List<LotteryBid> winners = new ArrayList<>();
+        for (String userID : users) {
+            for (LotteryBid bid : byUser.get(userID)) {
+                List<LocalDateTime> slots = SlotLedgerServiceImpl.slots(bid.getStartTime(), bid.getHours());
+                if (slots.stream().allMatch(slot -> used.getOrDefault(slot, 0) < capacity)) {
+                    slots.forEach(slot -> used.merge(slot, 1, Integer::sum));
+                    orders.add(new Order(0, userID, venue.getVenueID(), OrderService.STATE_NO_AUDIT, now,
+                            bid.getStartTime(), bid.getHours(), bid.getHours() * venue.getPrice(), null));
+                    winners.add(bid);
+                    break;
+                }
+            }
+        }
+        orderService.submitAllocated(orders);
+        for (int i = 0; i < winners.size(); i++) {
+            winners.get(i).setOrderID(orders.get(i).getOrderID());
+        }
+        lottery.setState(STATE_DRAWN);
+        lottery.setDrawTime(now);
+        lotteryDao.save(lottery);
+        closeOnCommit(lotteryID);
+        return orders.size();
+    }
+
+    private void closeOnCommit(int lotteryID) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            open.removeIf(lottery -> lottery.getLotteryID() == lotteryID);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                open.removeIf(lottery -> lottery.getLotteryID() == lotteryID);
+            }
+        });
+    }
+}
@@ -2,17 +2,27 @@ package com.demo.service.impl;
 
 import com.demo.dao.MessageDao;
 import com.demo.entity.Message;
+import com.demo.exception.StateConflictException;
 import com.demo.service.MessageService;
+import com.demo.service.RowCountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
 @Service
 public class MessageServiceImpl implements MessageService {
     @Autowired
     private MessageDao messageDao;
 
+    @Autowired
+    private RowCountService rowCountService;
+
     @Override
     public Message findById(int messageID) {
         return messageDao.getOne(messageID);
@@ -21,51 +31,101 @@ public class MessageServiceImpl implements MessageService {
     @Override
     public Page<Message> findByUser(String userID,Pageable pageable) {
 
-        Page<Message> page=messageDao.findAllByUserID(userID,pageable);
+        Page<Message> page=rowCountService.page(messageDao.findAllByUserID(userID,pageable),pageable,
+                userKey(userID),()->messageDao.countByUserID(userID));
         return page;
     }
 
     @Override
     public int create(Message message) {
-        return messageDao.save(message).getMessageID();
+        int messageID=messageDao.save(message).getMessageID();
+        rowCountService.add(stateKey(message.getState()),1);
+        rowCountService.add(userKey(message.getUserID()),1);
+        return messageID;
     }
 
     @Override
     public void delById(int messageID) {
+        Message message=messageDao.findByMessageID(messageID);
         messageDao.deleteById(messageID);
+        if(message!=null) {
+            rowCountService.add(stateKey(message.getState()),-1);
+            rowCountService.add(userKey(message.getUserID()),-1);
+        }
     }
 
+    /**
+     * 修改前的状态拿不到(传入的可能就是持久化对象), 修改后清除留言的计数
+     */
     @Override
     public void update(Message message) {
         messageDao.save(message);
+        rowCountService.evict("message:");
     }
 
     @Override
     public void confirmMessage(int messageID) {
-        Message message=messageDao.findByMessageID(messageID);
-        if(message==null) {
-            throw new RuntimeException("留言不存在");
-        }
-        messageDao.updateState(STATE_PASS,message.getMessageID());
+        transit(messageID,STATE_PASS,STATE_NO_AUDIT);
     }
 
     @Override
     public void rejectMessage(int messageID) {
-        Message message=messageDao.findByMessageID(messageID);
-        if(message==null) {
-            throw new RuntimeException("留言不存在");
-        }
-        messageDao.updateState(STATE_REJECT,message.getMessageID());
+        transit(messageID,STATE_REJECT,STATE_NO_AUDIT,STATE_PASS);
     }
 
     @Override
     public Page<Message> findWaitState(Pageable pageable) {
-        return messageDao.findAllByState(STATE_NO_AUDIT,pageable);
+        return rowCountService.page(messageDao.findAllByState(STATE_NO_AUDIT,pageable),pageable,
+                stateKey(STATE_NO_AUDIT),()->messageDao.countByState(STATE_NO_AUDIT));
     }
 
     @Override
     public Page<Message> findPassState(Pageable pageable) {
-        return messageDao.findAllByState(STATE_PASS,pageable);
+        return rowCountService.page(messageDao.findAllByState(STATE_PASS,pageable),pageable,
+                stateKey(STATE_PASS),()->messageDao.countByState(STATE_PASS));
+    }
+
+    @Override
+    public List<Message> findWaitStateSeek(LocalDateTime time, int messageID, int size) {
+        return messageDao.findSeekByState(STATE_NO_AUDIT,time,messageID,PageRequest.of(0,size));
+    }
+
+    @Override
+    public List<Message> findPassStateSeek(LocalDateTime time, int messageID, int size) {
+        return messageDao.findSeekByState(STATE_PASS,time,messageID,PageRequest.of(0,size));
+    }
+
+    @Override
+    public List<Message> findByUserSeek(String userID, LocalDateTime time, int messageID, int size) {
+        return messageDao.findSeekByUserID(userID,time,messageID,PageRequest.of(0,size));
+    }
+
+    /**
+     * 一条 UPDATE ... WHERE state IN (from) 完成审核, 受影响行数为0时才区分留言不存在和状态冲突
+     */
+    private void transit(int messageID, int state, Integer... from) {
+        if(messageDao.updateStateFrom(state,messageID,Arrays.asList(from))==0) {
+            if(!messageDao.existsById(messageID)) {
+                throw new RuntimeException("留言不存在");
+            }
+            throw new StateConflictException("留言状态已变更，无法执行该操作");
+        }
+        if(from.length==1) {
+            rowCountService.add(stateKey(from[0]),-1);
+        } else {
+            for(Integer old:from) {
+                rowCountService.evict(stateKey(old));
+            }
+        }
+        rowCountService.add(stateKey(state),1);
+    }
+
+    private static String stateKey(int state) {
+        return "message:state:"+state;
+    }
+
+    private static String userKey(String userID) {
+        return "message:user:"+userID;
     }
 
 }
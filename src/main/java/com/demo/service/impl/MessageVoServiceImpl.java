@@ -10,7 +10,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class MessageVoServiceImpl implements MessageVoService {
@@ -23,17 +27,38 @@ public class MessageVoServiceImpl implements MessageVoService {
     public MessageVo returnMessageVoByMessageID(int messageID) {
         Message message=messageDao.findByMessageID(messageID);
         User user=userDao.findByUserID(message.getUserID());
-        MessageVo messageVo=new MessageVo(message.getMessageID(),user.getUserID(),message.getContent(),message.getTime(),user.getUserName(),user.getPicture(),message.getState());
-
-        return messageVo;
+        return toVo(message,user);
     }
 
+    /**
+     * 批量组装留言视图: 同一页的留言作者只查一次, 一次 IN 查询取回
+     * @param messages
+     * @return
+     */
     @Override
     public List<MessageVo> returnVo(List<Message> messages) {
-        List<MessageVo> list=new ArrayList<>();
-        for(int i=0;i<messages.size();i++){
-            list.add(returnMessageVoByMessageID(messages.get(i).getMessageID()));
+        List<MessageVo> list=new ArrayList<>(messages.size());
+        if(messages.isEmpty()) {
+            return list;
+        }
+        Set<String> userIDs=new HashSet<>();
+        for(Message message:messages) {
+            userIDs.add(message.getUserID());
+        }
+        Map<String,User> users=new HashMap<>();
+        for(User user:userDao.findAllByUserIDIn(userIDs)) {
+            users.put(user.getUserID(),user);
+        }
+        for(Message message:messages) {
+            list.add(toVo(message,users.get(message.getUserID())));
         }
         return list;
     }
+
+    private MessageVo toVo(Message message,User user) {
+        if(user==null) {
+            return new MessageVo(message.getMessageID(),message.getUserID(),message.getContent(),message.getTime(),null,null,message.getState());
+        }
+        return new MessageVo(message.getMessageID(),user.getUserID(),message.getContent(),message.getTime(),user.getUserName(),user.getPicture(),message.getState());
+    }
 }
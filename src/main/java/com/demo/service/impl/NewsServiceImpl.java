@@ -3,19 +3,34 @@ package com.demo.service.impl;
 import com.demo.dao.NewsDao;
 import com.demo.entity.News;
 import com.demo.service.NewsService;
+import com.demo.service.RowCountService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 public class NewsServiceImpl implements NewsService {
+    private static final String COUNT_KEY="news";
+
     @Autowired
     private NewsDao newsDao;
 
+    @Autowired
+    private RowCountService rowCountService;
+
     @Override
     public Page<News> findAll(Pageable pageable) {
-        return newsDao.findAll(pageable);
+        return rowCountService.page(newsDao.findSlice(pageable),pageable,COUNT_KEY,newsDao::count);
+    }
+
+    @Override
+    public List<News> findSeek(LocalDateTime time, int newsID, int size) {
+        return newsDao.findSeek(time,newsID,PageRequest.of(0,size));
     }
 
     @Override
@@ -25,12 +40,15 @@ public class NewsServiceImpl implements NewsService {
 
     @Override
     public int create(News news) {
-        return newsDao.save(news).getNewsID();
+        int newsID=newsDao.save(news).getNewsID();
+        rowCountService.add(COUNT_KEY,1);
+        return newsID;
     }
 
     @Override
     public void delById(int newsID) {
         newsDao.deleteById(newsID);
+        rowCountService.add(COUNT_KEY,-1);
     }
 
     @Override
@@ -0,0 +1,63 @@
+package com.demo.service.impl;
+
+import com.demo.service.OrderArchiveService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+    @Autowired
+    private OrderService orderService;
+
+    /**
+     * 开始时间早于多少天前的订单归档
+     */
+    @Value("${order.archive.horizon-days:180}")
+    private int horizonDays;
+
+    @Value("${order.archive.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 每批之间暂停的毫秒数
+     */
+    @Value("${order.archive.pause-millis:200}")
+    private long pauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Override
+    @Scheduled(cron = "${order.archive.cron:0 30 3 * * ?}")
+    public int archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime before = LocalDate.now().minusDays(horizonDays).atStartOfDay();
+            int count = 0;
+            while (true) {
+                int archived = orderService.archiveOrders(before, batchSize);
+                count += archived;
+                if (archived < batchSize) {
+                    break;
+                }
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return count;
+        } finally {
+            running.set(false);
+        }
+    }
+}
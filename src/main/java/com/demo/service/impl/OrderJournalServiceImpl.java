@@ -0,0 +1,439 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.service.OrderJournalService;
+import com.demo.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OrderJournalServiceImpl implements OrderJournalService {
+    private static final int SNAPSHOT_MAGIC = 0x4f524a33;
+
+    private static final String SNAPSHOT = "snapshot.bin";
+
+    private static final byte BOOKED = 1;
+    private static final byte CHANGED = 2;
+    private static final byte DELETED = 3;
+
+    @Autowired
+    private OrderDao orderDao;
+
+    @Value("${order.journal.enabled:false}")
+    private volatile boolean enabled;
+
+    @Value("${order.journal.dir:journal}")
+    private String dir;
+
+    /**
+     * 每段日志映射的大小, 写满时自动写快照并换新的一段
+     */
+    @Value("${order.journal.segment-kb:16384}")
+    private int segmentKb;
+
+    /**
+     * 有效订单, orderID -> 订单
+     */
+    private final Map<Integer, Order> active = new LinkedHashMap<>();
+
+    private boolean recovered;
+
+    /**
+     * 日志见过的最大订单号, 写在快照中; 启动时订单表里比它新的订单一律按订单表补齐
+     */
+    private int maxOrderID;
+
+    /**
+     * 当前日志段的序号, 快照记录的是它之后要重放的段
+     */
+    private long generation;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer journal;
+
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(Paths.get(dir));
+            Path snapshot = Paths.get(dir, SNAPSHOT);
+            if (Files.exists(snapshot)) {
+                boolean usable = readSnapshot(snapshot);
+                if (usable) {
+                    replay(segment(generation));
+                    usable = reconcile();
+                }
+                if (usable) {
+                    recovered = true;
+                    // 重放后的状态立即压成新快照, 日志从空的一段开始
+                    rotate();
+                } else {
+                    active.clear();
+                    Files.delete(snapshot);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            disable();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            rotate();
+            channel.close();
+        } catch (IOException e) {
+            disable();
+        }
+        channel = null;
+        journal = null;
+    }
+
+    @Override
+    public void booked(Order order) {
+        Order copy = copy(order);
+        onCommit(() -> append(BOOKED, out -> writeOrder(out, copy), () -> apply(copy)));
+    }
+
+    @Override
+    public void changed(Collection<Integer> orderIDs, int state) {
+        List<Integer> ids = new ArrayList<>(orderIDs);
+        onCommit(() -> append(CHANGED, out -> {
+            out.writeByte(state);
+            out.writeInt(ids.size());
+            for (int orderID : ids) {
+                out.writeInt(orderID);
+            }
+        }, () -> apply(ids, state)));
+    }
+
+    @Override
+    public void deleted(int orderID) {
+        onCommit(() -> append(DELETED, out -> out.writeInt(orderID), () -> active.remove(orderID)));
+    }
+
+    @Override
+    public synchronized boolean isRecovered() {
+        return recovered;
+    }
+
+    @Override
+    public synchronized Collection<Order> recovered() {
+        List<Order> orders = new ArrayList<>(active.size());
+        for (Order order : active.values()) {
+            orders.add(copy(order));
+        }
+        return orders;
+    }
+
+    @Override
+    public synchronized void reset(Collection<Order> orders) {
+        if (!enabled) {
+            return;
+        }
+        active.clear();
+        maxOrderID = (int) orderDao.findMaxOrderID();
+        for (Order order : orders) {
+            apply(copy(order));
+        }
+        try {
+            rotate();
+        } catch (IOException e) {
+            disable();
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${order.journal.snapshot-delay:600000}", fixedDelayString = "${order.journal.snapshot-delay:600000}")
+    public synchronized void snapshot() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            rotate();
+        } catch (IOException e) {
+            disable();
+        }
+    }
+
+    /**
+     * 事务提交后再记录, 回滚的修改不进入日志
+     */
+    private void onCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 先写记录内容再写长度, 进程中途退出时读到的长度为0, 半条记录不会被重放
+     */
+    private synchronized void append(byte type, Writer writer, Runnable apply) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            writer.write(out);
+            byte[] record = bytes.toByteArray();
+            if (journal.position() + record.length + 8 > journal.capacity()) {
+                rotate();
+                if (record.length + 8 > journal.capacity()) {
+                    throw new IOException("日志记录超过段大小");
+                }
+            }
+            int position = journal.position();
+            journal.position(position + 4);
+            journal.put(record);
+            journal.putInt(position, record.length);
+            apply.run();
+        } catch (IOException e) {
+            disable();
+        }
+    }
+
+    /**
+     * 写快照后换新的一段日志, 旧的一段随之删除; 快照先写临时文件并刷盘再改名, 任何时刻磁盘上都有一份完整的快照和对应的日志
+     */
+    private void rotate() throws IOException {
+        long next = generation + 1;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + active.size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(next);
+        out.writeInt(maxOrderID);
+        out.writeInt(active.size());
+        for (Order order : active.values()) {
+            writeOrder(out, order);
+        }
+        if (journal != null) {
+            journal.force();
+        }
+        Path tmp = Paths.get(dir, SNAPSHOT + ".tmp");
+        try (FileChannel file = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+            file.force(true);
+        }
+        Files.move(tmp, Paths.get(dir, SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (channel != null) {
+            channel.close();
+        }
+        Files.deleteIfExists(segment(generation));
+        generation = next;
+        Files.deleteIfExists(segment(next));
+        channel = FileChannel.open(segment(next), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        journal = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentKb * 1024L);
+    }
+
+    private boolean readSnapshot(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(snapshot)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                return false;
+            }
+            generation = in.readLong();
+            maxOrderID = in.readInt();
+            int count = in.readInt();
+            active.clear();
+            for (int i = 0; i < count; i++) {
+                apply(readOrder(in));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 事务提交后、追加日志前进程退出时, 已提交的修改不在日志中: 比日志最大订单号新的订单按订单表补齐,
+     * 再用订单表中未审核和已审核的订单数核对, 不一致说明还有修改丢失, 返回false由调用方查询订单表
+     */
+    private boolean reconcile() {
+        for (Order order : orderDao.findAllByOrderIDGreaterThan(maxOrderID)) {
+            apply(order);
+        }
+        long noAudit = active.values().stream().filter(order -> order.getState() == OrderService.STATE_NO_AUDIT).count();
+        return orderDao.countByState(OrderService.STATE_NO_AUDIT) == noAudit
+                && orderDao.countByState(OrderService.STATE_WAIT) == active.size() - noAudit;
+    }
+
+    private void replay(Path segment) throws IOException {
+        if (!Files.exists(segment)) {
+            return;
+        }
+        try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            while (buffer.remaining() >= 4) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(record);
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+                byte type = in.readByte();
+                if (type == BOOKED) {
+                    apply(readOrder(in));
+                } else if (type == CHANGED) {
+                    int state = in.readByte();
+                    int count = in.readInt();
+                    List<Integer> ids = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        ids.add(in.readInt());
+                    }
+                    apply(ids, state);
+                } else if (type == DELETED) {
+                    active.remove(in.readInt());
+                }
+            }
+        }
+    }
+
+    private void apply(Order order) {
+        maxOrderID = Math.max(maxOrderID, order.getOrderID());
+        if (isActive(order.getState())) {
+            active.put(order.getOrderID(), order);
+        } else {
+            active.remove(order.getOrderID());
+        }
+    }
+
+    private void apply(List<Integer> orderIDs, int state) {
+        for (int orderID : orderIDs) {
+            Order order = active.get(orderID);
+            if (order == null) {
+                continue;
+            }
+            if (isActive(state)) {
+                order.setState(state);
+            } else {
+                active.remove(orderID);
+            }
+        }
+    }
+
+    /**
+     * 日志写入失败时停止记录并删除快照, 下次启动回到查询订单表, 不会用不完整的日志恢复
+     */
+    private void disable() {
+        enabled = false;
+        recovered = false;
+        active.clear();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(Paths.get(dir, SNAPSHOT));
+        } catch (IOException ignored) {
+            // 快照删不掉时下次启动仍会读到它, 这里已无法补救
+        }
+        channel = null;
+        journal = null;
+    }
+
+    private Path segment(long generation) {
+        return Paths.get(dir, "journal-" + generation + ".log");
+    }
+
+    private static boolean isActive(int state) {
+        return state == OrderService.STATE_NO_AUDIT || state == OrderService.STATE_WAIT;
+    }
+
+    private static Order copy(Order order) {
+        return new Order(order.getOrderID(), order.getUserID(), order.getVenueID(), order.getState(), order.getOrderTime(),
+                order.getStartTime(), order.getHours(), order.getTotal(), order.getSeriesID());
+    }
+
+    private static void writeOrder(DataOutputStream out, Order order) throws IOException {
+        out.writeInt(order.getOrderID());
+        out.writeUTF(order.getUserID());
+        out.writeInt(order.getVenueID());
+        out.writeByte(order.getState());
+        writeTime(out, order.getOrderTime());
+        writeTime(out, order.getStartTime());
+        out.writeInt(order.getHours());
+        out.writeInt(order.getTotal());
+        out.writeBoolean(order.getSeriesID() != null);
+        if (order.getSeriesID() != null) {
+            out.writeUTF(order.getSeriesID());
+        }
+    }
+
+    private static Order readOrder(DataInputStream in) throws IOException {
+        Order order = new Order();
+        order.setOrderID(in.readInt());
+        order.setUserID(in.readUTF());
+        order.setVenueID(in.readInt());
+        order.setState(in.readByte());
+        order.setOrderTime(readTime(in));
+        order.setStartTime(readTime(in));
+        order.setHours(in.readInt());
+        order.setTotal(in.readInt());
+        order.setSeriesID(in.readBoolean() ? in.readUTF() : null);
+        return order;
+    }
+
+    /**
+     * 精确到秒, 与订单表一致
+     */
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,100 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderRollupDao;
+import com.demo.entity.Order;
+import com.demo.entity.vo.VenueRollup;
+import com.demo.service.OrderRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+public class OrderRollupServiceImpl implements OrderRollupService {
+    @Autowired
+    private OrderRollupDao orderRollupDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.rollup.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${order.rollup.rebuild-chunk:20}")
+    private int rebuildChunk;
+
+    @Override
+    public void add(Order order, int sign) {
+        orderRollupDao.add(order.getVenueID(), order.getStartTime().toLocalDate(), order.getState(),
+                sign, sign * order.getHours(), (long) sign * order.getTotal());
+    }
+
+    @Override
+    public void move(Collection<Integer> orderIDs, int from, int to) {
+        if (orderIDs.isEmpty() || from == to) {
+            return;
+        }
+        orderRollupDao.addOrders(orderIDs, from, -1);
+        orderRollupDao.addOrders(orderIDs, to, 1);
+    }
+
+    /**
+     * 每块场馆在一个事务里先删后插, 块之间的汇总行互不重叠, 可以并行
+     */
+    @Override
+    public int rebuild() {
+        List<Integer> venueIDs = orderRollupDao.findVenueIDs();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < venueIDs.size(); i += rebuildChunk) {
+                List<Integer> chunk = venueIDs.subList(i, Math.min(i + rebuildChunk, venueIDs.size()));
+                futures.add(executor.submit(() -> transaction.execute(status -> {
+                    orderRollupDao.deleteByVenueIDIn(chunk);
+                    return orderRollupDao.rebuildVenues(chunk);
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("汇总重建被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("汇总重建失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return venueIDs.size();
+    }
+
+    @Override
+    public List<VenueRollup> findDaily(int venueID, LocalDate from, LocalDate to, Collection<Integer> states) {
+        return toVo(orderRollupDao.sumByDay(venueID, from, to, states));
+    }
+
+    @Override
+    public List<VenueRollup> findMonthly(int venueID, LocalDate from, LocalDate to, Collection<Integer> states) {
+        return toVo(orderRollupDao.sumByMonth(venueID, from, to, states));
+    }
+
+    private List<VenueRollup> toVo(List<Object[]> rows) {
+        List<VenueRollup> rollups = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            rollups.add(new VenueRollup(((Number) row[0]).intValue(), (String) row[1],
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue(), ((Number) row[4]).longValue()));
+        }
+        return rollups;
+    }
+}
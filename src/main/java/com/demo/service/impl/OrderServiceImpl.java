@@ -5,24 +5,105 @@ import com.demo.dao.OrderDao;
 import com.demo.dao.VenueDao;
 import com.demo.entity.Venue;
 import com.demo.entity.Order;
+import com.demo.entity.WaitlistEntry;
+import com.demo.entity.vo.CartItem;
+import com.demo.entity.vo.SeriesResult;
+import com.demo.entity.vo.SlotHold;
+import com.demo.entity.vo.VenueCalendar;
+import com.demo.exception.SlotConflictException;
+import com.demo.exception.StateConflictException;
+import com.demo.service.AvailabilityService;
+import com.demo.service.LotteryService;
+import com.demo.service.OrderJournalService;
+import com.demo.service.OrderRollupService;
 import com.demo.service.OrderService;
+import com.demo.service.QuotaService;
+import com.demo.service.RowCountService;
+import com.demo.service.SlotHoldService;
+import com.demo.service.SlotLedgerService;
+import com.demo.service.SlotSuggestionService;
+import com.demo.service.WaitlistService;
+import com.demo.utils.OpeningHours;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.transaction.Transactional;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class OrderServiceImpl implements OrderService {
+    private static final int BATCH_SIZE=500;
+
+    /**
+     * 预约冲突时同场馆和其他场馆各推荐的时段数
+     */
+    private static final int ALTERNATIVES=3;
+
     @Autowired
     private OrderDao orderDao;
 
     @Autowired
     private VenueDao venueDao;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private SlotLedgerService slotLedgerService;
+
+    @Autowired
+    private RowCountService rowCountService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private SlotSuggestionService slotSuggestionService;
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private LotteryService lotteryService;
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private OrderJournalService orderJournalService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Override
     public Order findById(int OrderID) {
         return orderDao.getOne(OrderID);
@@ -30,19 +111,50 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public List<Order> findDateOrder(int venueID, LocalDateTime startTime, LocalDateTime startTime2) {
-        return orderDao.findByVenueIDAndStartTimeIsBetween(venueID,startTime,startTime2);
+        return availabilityService.findDateOrder(venueID,startTime,startTime2);
     }
 
     @Override
     public Page<Order> findUserOrder(String userID, Pageable pageable) {
-        return orderDao.findAllByUserID(userID,pageable);
+        // 我的订单包括已归档的订单, 计数也按两张表合计
+        return rowCountService.page(orderDao.findAllWithHistoryByUserID(userID,pageable),pageable,
+                userKey(userID),()->orderDao.countByUserID(userID)+orderDao.countArchivedByUserID(userID));
+    }
+
+
+    @Override
+    public VenueCalendar findCalendar(Venue venue, LocalDate from, int days, String userID) {
+        if(days<1 || days>MAX_CALENDAR_DAYS) {
+            throw new RuntimeException("一次最多查询"+MAX_CALENDAR_DAYS+"天");
+        }
+        int[] taken=new int[days];
+        int[] held=new int[days];
+        for(int i=0;i<days;i++) {
+            taken[i]=availabilityService.takenHours(venue.getVenueID(),from.plusDays(i));
+            held[i]=slotHoldService.heldHours(venue.getVenueID(),from.plusDays(i),userID);
+        }
+        return new VenueCalendar(venue.getVenueID(),venue.getVenueName(),venue.getOpen_time(),venue.getClose_time(),
+                from,OpeningHours.mask(venue.getOpen_time(),venue.getClose_time()),taken,held);
     }
 
+    @Override
+    public List<Order> findNoAuditOrderSeek(LocalDateTime orderTime, int orderID, int size) {
+        return orderDao.findSeekByState(STATE_NO_AUDIT,orderTime,orderID,PageRequest.of(0,size));
+    }
+
+    @Override
+    public List<Order> findUserOrderSeek(String userID, LocalDateTime orderTime, int orderID, int size) {
+        return orderDao.findSeekWithHistoryByUserID(userID,orderTime,orderID,size);
+    }
 
     @Override
+    @Transactional
     public void updateOrder(int orderID, String venueName, LocalDateTime startTime, int hours,String userID)  {
         Venue venue =venueDao.findByVenueName(venueName);
         Order order=orderDao.findByOrderID(orderID);
+        orderRollupService.add(order,-1);
+        int oldState=order.getState();
+        String oldUserID=order.getUserID();
         order.setState(STATE_NO_AUDIT);
         order.setHours(hours);
         order.setVenueID(venue.getVenueID());
@@ -51,64 +163,579 @@ public class OrderServiceImpl implements OrderService {
         order.setUserID(userID);
         order.setTotal(hours* venue.getPrice());
 
+        Order old=release(orderID);
+        promoteOnCommit(old);
+        slotLedgerService.release(orderID);
+        checkFree(order);
+        acquireQuota(Collections.singletonList(order),true);
         orderDao.save(order);
+        occupy(order);
+        availabilityService.book(order);
+        orderJournalService.booked(order);
+        orderRollupService.add(order,1);
+        if(oldState!=STATE_NO_AUDIT) {
+            rowCountService.add(stateKey(oldState),-1);
+            rowCountService.add(stateKey(STATE_NO_AUDIT),1);
+        }
+        if(!userID.equals(oldUserID)) {
+            rowCountService.add(userKey(oldUserID),-1);
+            rowCountService.add(userKey(userID),1);
+        }
     }
 
     @Override
+    @Transactional
     public void submit(String venueName, LocalDateTime startTime, int hours, String userID) {
 
         Venue venue =venueDao.findByVenueName(venueName);
+        create(venue,startTime,hours,userID,true);
+    }
 
+    /**
+     * 预留期间其他用户无法预约或预留该时段, 直接写入订单, 不再做占用检查
+     * 台账的唯一键仍然兜底
+     */
+    @Override
+    @Transactional
+    public void submitHold(String holdID, String userID) {
+        SlotHold hold=slotHoldService.take(holdID,userID);
+        restoreHoldOnRollback(hold);
+        if(lotteryService.isReserved(hold.getVenueID(),hold.getStartTime(),hold.getHours())) {
+            throw new SlotConflictException("该时段通过抽签分配，请参加抽签");
+        }
+        Venue venue=venueDao.findByVenueID(hold.getVenueID());
+        create(venue,hold.getStartTime(),hold.getHours(),userID,false);
+    }
+
+    /**
+     * 先逐项检查占用和购物车内部的重叠, 再一次批量插入订单和台账
+     */
+    @Override
+    @Transactional
+    public List<Order> submitCart(List<CartItem> items, String userID) {
+        if(items==null || items.isEmpty()) {
+            throw new RuntimeException("购物车为空");
+        }
+        if(items.size()>MAX_CART_ITEMS) {
+            throw new RuntimeException("一次最多预约"+MAX_CART_ITEMS+"个时段");
+        }
+        Set<String> names=new HashSet<>();
+        for(CartItem item:items) {
+            names.add(item.getVenueName());
+        }
+        Map<String,Venue> venues=new HashMap<>();
+        for(Venue venue:venueDao.findByVenueNameIn(names)) {
+            venues.put(venue.getVenueName(),venue);
+        }
+        LocalDateTime now=LocalDateTime.now();
+        List<Order> orders=new ArrayList<>(items.size());
+        Map<Integer,Map<LocalDate,Integer>> claimed=new HashMap<>();
+        for(CartItem item:items) {
+            Venue venue=venues.get(item.getVenueName());
+            if(venue==null) {
+                throw new RuntimeException("场馆不存在: "+item.getVenueName());
+            }
+            if(item.getStartTime()==null) {
+                throw new RuntimeException("预约时间无效");
+            }
+            Order order=newOrder(venue,item.getStartTime(),item.getHours(),userID,now);
+            checkFree(order);
+            Map<LocalDate,Integer> days=claimed.computeIfAbsent(venue.getVenueID(),id->new HashMap<>());
+            for(Map.Entry<LocalDate,Integer> entry:AvailabilityServiceImpl.spread(order.getStartTime(),order.getHours()).entrySet()) {
+                int mask=days.getOrDefault(entry.getKey(),0);
+                if((mask & entry.getValue())!=0) {
+                    throw new RuntimeException("购物车中的时段相互重叠");
+                }
+                days.put(entry.getKey(),mask | entry.getValue());
+            }
+            orders.add(order);
+        }
+        insertAll(orders,true);
+        return orders;
+    }
+
+    @Override
+    @Transactional
+    public SeriesResult submitSeries(String venueName, DayOfWeek dayOfWeek, LocalTime startTime, int hours,
+                                     LocalDate from, LocalDate to, String userID) {
+        if(hours<=0 || startTime.getHour()+hours>24) {
+            throw new RuntimeException("预约时长无效");
+        }
+        if(from.isBefore(LocalDate.now()) || to.isBefore(from)) {
+            throw new RuntimeException("日期范围无效");
+        }
+        if(from.plusWeeks(MAX_SERIES_WEEKS).isBefore(to)) {
+            throw new RuntimeException("周期预约最多"+MAX_SERIES_WEEKS+"周");
+        }
+        Venue venue=venueDao.findByVenueName(venueName);
+        if(venue==null) {
+            throw new RuntimeException("场馆不存在");
+        }
+        LocalDate first=from.with(TemporalAdjusters.nextOrSame(dayOfWeek));
+        Set<LocalDateTime> taken=slotLedgerService.findTaken(venue.getVenueID(),first.atTime(startTime),to.plusDays(1).atStartOfDay());
+        String seriesID=UUID.randomUUID().toString();
+        LocalDateTime now=LocalDateTime.now();
+        List<Order> orders=new ArrayList<>();
+        List<LocalDate> conflicts=new ArrayList<>();
+        for(LocalDate day=first;!day.isAfter(to);day=day.plusWeeks(1)) {
+            LocalDateTime start=day.atTime(startTime);
+            boolean free=start.isAfter(now)
+                    && !slotHoldService.isHeld(venue.getVenueID(),start,hours,userID)
+                    && !lotteryService.isReserved(venue.getVenueID(),start,hours);
+            for(LocalDateTime slot:SlotLedgerServiceImpl.slots(start,hours)) {
+                free=free && !taken.contains(slot);
+            }
+            if(!free) {
+                conflicts.add(day);
+                continue;
+            }
+            Order order=newOrder(venue,start,hours,userID,now);
+            order.setSeriesID(seriesID);
+            orders.add(order);
+        }
+        if(orders.isEmpty()) {
+            throw new SlotConflictException("所选日期均已被预订");
+        }
+        insertAll(orders,true);
+        List<Integer> orderIDs=new ArrayList<>(orders.size());
+        for(Order order:orders) {
+            orderIDs.add(order.getOrderID());
+        }
+        return new SeriesResult(seriesID,orderIDs,conflicts);
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer,String> confirmSeries(String seriesID) {
+        return transitAll(orderDao.findIDBySeriesID(seriesID),STATE_WAIT,STATE_NO_AUDIT);
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer,String> rejectSeries(String seriesID) {
+        return releaseAll(transitAll(orderDao.findIDBySeriesID(seriesID),STATE_REJECT,STATE_NO_AUDIT,STATE_WAIT));
+    }
+
+    @Override
+    @Transactional
+    public void submitAllocated(List<Order> orders) {
+        insertAll(orders,false);
+    }
+
+    /**
+     * 批量插入订单和台账, 再更新索引、汇总和计数
+     *
+     * @param checkQuota 抽签分配的订单只计入配额, 不做检查
+     */
+    private void insertAll(List<Order> orders, boolean checkQuota) {
+        if(orders.isEmpty()) {
+            return;
+        }
+        acquireQuota(orders,checkQuota);
+        orderDao.insertAll(orders);
+        slotLedgerService.occupyAll(orders);
+        Map<String,Integer> users=new HashMap<>();
+        for(Order order:orders) {
+            restoreOnRollback(order.getOrderID(),null);
+            availabilityService.book(order);
+            orderJournalService.booked(order);
+            orderRollupService.add(order,1);
+            users.merge(order.getUserID(),1,Integer::sum);
+        }
+        rowCountService.add(stateKey(STATE_NO_AUDIT),orders.size());
+        for(Map.Entry<String,Integer> entry:users.entrySet()) {
+            rowCountService.add(userKey(entry.getKey()),entry.getValue());
+        }
+    }
+
+    private static Order newOrder(Venue venue, LocalDateTime startTime, int hours, String userID, LocalDateTime orderTime) {
         Order order=new Order();
         order.setState(STATE_NO_AUDIT);
         order.setHours(hours);
         order.setVenueID(venue.getVenueID());
-        order.setOrderTime(LocalDateTime.now());
+        order.setOrderTime(orderTime);
         order.setStartTime(startTime);
         order.setUserID(userID);
         order.setTotal(hours* venue.getPrice());
+        return order;
+    }
+
+    private void create(Venue venue, LocalDateTime startTime, int hours, String userID, boolean check) {
+        Order order=newOrder(venue,startTime,hours,userID,LocalDateTime.now());
+        if(check) {
+            checkFree(order);
+        }
+        acquireQuota(Collections.singletonList(order),true);
         orderDao.save(order);
+        occupy(order);
+        restoreOnRollback(order.getOrderID(),null);
+        availabilityService.book(order);
+        orderJournalService.booked(order);
+        orderRollupService.add(order,1);
+        rowCountService.add(stateKey(STATE_NO_AUDIT),1);
+        rowCountService.add(userKey(userID),1);
     }
 
     @Override
+    @Transactional
     public void delOrder(int orderID) {
+        Order order=orderDao.findByOrderID(orderID);
         orderDao.deleteById(orderID);
+        orderJournalService.deleted(orderID);
+        if(order!=null) {
+            orderRollupService.add(order,-1);
+            rowCountService.add(stateKey(order.getState()),-1);
+            rowCountService.add(userKey(order.getUserID()),-1);
+        }
+        slotLedgerService.release(orderID);
+        promoteOnCommit(release(orderID));
     }
 
     @Override
+    @Transactional
     public void confirmOrder(int orderID) {
-        Order order=orderDao.findByOrderID(orderID);
-        if(order == null) {
-            throw new RuntimeException("订单不存在");
-        }
-        orderDao.updateState(STATE_WAIT,order.getOrderID());
+        transit(orderID,STATE_WAIT,STATE_NO_AUDIT);
     }
 
     @Override
+    @Transactional
     public void finishOrder(int orderID) {
-        Order order=orderDao.findByOrderID(orderID);
-        if(order == null) {
-            throw new RuntimeException("订单不存在");
-        }
-        orderDao.updateState(STATE_FINISH,order.getOrderID());
+        transit(orderID,STATE_FINISH,STATE_WAIT);
+        slotLedgerService.release(orderID);
+        release(orderID);
     }
 
     @Override
+    @Transactional
     public void rejectOrder(int orderID) {
-        Order order=orderDao.findByOrderID(orderID);
-        if(order == null) {
-            throw new RuntimeException("订单不存在");
+        transit(orderID,STATE_REJECT,STATE_NO_AUDIT,STATE_WAIT);
+        slotLedgerService.release(orderID);
+        promoteOnCommit(release(orderID));
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer,String> confirmOrders(List<Integer> orderIDs) {
+        return transitAll(orderIDs,STATE_WAIT,STATE_NO_AUDIT);
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer,String> rejectOrders(List<Integer> orderIDs) {
+        return releaseAll(transitAll(orderIDs,STATE_REJECT,STATE_NO_AUDIT,STATE_WAIT));
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer,String> finishOrders(List<Integer> orderIDs) {
+        return releaseAll(transitAll(orderIDs,STATE_FINISH,STATE_WAIT));
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer,String> expireOrders(List<Integer> orderIDs) {
+        return releaseAll(transitAll(orderIDs,STATE_REJECT,STATE_NO_AUDIT));
+    }
+
+    /**
+     * 已完成和失效的订单不再占用时段和配额, 归档只需维护计数, 汇总保留不变
+     */
+    @Override
+    @Transactional
+    public int archiveOrders(LocalDateTime before, int limit) {
+        List<Order> orders=orderDao.archive(Arrays.asList(STATE_FINISH,STATE_REJECT),before,limit);
+        Map<String,Integer> counts=new HashMap<>();
+        for(Order order:orders) {
+            // 用户的订单数包括历史表, 归档不改变
+            counts.merge(stateKey(order.getState()),1,Integer::sum);
+        }
+        for(Map.Entry<String,Integer> entry:counts.entrySet()) {
+            rowCountService.add(entry.getKey(),-entry.getValue());
         }
-        orderDao.updateState(STATE_REJECT,order.getOrderID());
+        return orders.size();
+    }
+
+    @Override
+    public List<Integer> findNoAuditOrderID(int venueID, LocalDate date) {
+        return orderDao.findIDByVenueAndState(venueID,STATE_NO_AUDIT,date.atStartOfDay(),date.plusDays(1).atStartOfDay());
     }
 
     @Override
     public Page<Order> findNoAuditOrder(Pageable pageable) {
-        return orderDao.findAllByState(STATE_NO_AUDIT,pageable);
+        return rowCountService.page(orderDao.findAllByState(STATE_NO_AUDIT,pageable),pageable,
+                stateKey(STATE_NO_AUDIT),()->orderDao.countByState(STATE_NO_AUDIT));
     }
 
     @Override
-    public List<Order> findAuditOrder() {
-        return orderDao.findAudit(STATE_WAIT,STATE_FINISH);
+    public Page<Order> findAuditOrder(Pageable pageable) {
+        return rowCountService.page(orderDao.findAllByStateIn(Arrays.asList(STATE_WAIT,STATE_FINISH),pageable),pageable,
+                ()->rowCountService.count(stateKey(STATE_WAIT),()->orderDao.countByState(STATE_WAIT))
+                        +rowCountService.count(stateKey(STATE_FINISH),()->orderDao.countByState(STATE_FINISH)));
+    }
+
+    /**
+     * 每个允许的原状态各一条 UPDATE ... WHERE state=?, 命中即知道原状态, 不需要先加锁读;
+     * 通常第一条就命中, 都没有命中时才区分订单不存在和状态冲突
+     */
+    private void transit(int orderID, int state, Integer... from) {
+        List<Integer> ids=Collections.singletonList(orderID);
+        for(Integer previous:from) {
+            if(orderDao.updateStateFrom(state,orderID,Collections.singletonList(previous))>0) {
+                rowCountService.add(stateKey(previous),-1);
+                rowCountService.add(stateKey(state),1);
+                orderRollupService.move(ids,previous,state);
+                orderJournalService.changed(ids,state);
+                return;
+            }
+        }
+        if(!orderDao.existsById(orderID)) {
+            throw new RuntimeException("订单不存在");
+        }
+        throw new StateConflictException("订单状态已变更，无法执行该操作");
+    }
+
+    /**
+     * 批量状态变更: 每批先不加锁查一次当前状态, 再按原状态分组, 每组一条 UPDATE ... WHERE orderID IN (...) AND state=?
+     * 更新行数与该组大小不符说明期间有并发修改, 再读一次: 可重复读下只有本事务更新过的行会读到新状态
+     */
+    private Map<Integer,String> transitAll(List<Integer> orderIDs, int state, Integer... from) {
+        List<Integer> allowed=Arrays.asList(from);
+        List<Integer> ids=new ArrayList<>(new LinkedHashSet<>(orderIDs));
+        Map<Integer,String> result=new LinkedHashMap<>();
+        for(int i=0;i<ids.size();i+=BATCH_SIZE) {
+            List<Integer> batch=ids.subList(i,Math.min(i+BATCH_SIZE,ids.size()));
+            Map<Integer,Integer> states=findStates(batch);
+            Map<Integer,List<Integer>> byState=new LinkedHashMap<>();
+            for(Integer orderID:batch) {
+                Integer current=states.get(orderID);
+                if(current==null) {
+                    result.put(orderID,RESULT_NOT_FOUND);
+                } else if(allowed.contains(current)) {
+                    byState.computeIfAbsent(current,k->new ArrayList<>()).add(orderID);
+                } else {
+                    result.put(orderID,RESULT_CONFLICT);
+                }
+            }
+            for(Map.Entry<Integer,List<Integer>> entry:byState.entrySet()) {
+                int previous=entry.getKey();
+                List<Integer> group=entry.getValue();
+                int updated=orderDao.updateStatesFrom(state,group,Collections.singletonList(previous));
+                List<Integer> moved=group;
+                if(updated!=group.size()) {
+                    Map<Integer,Integer> after=findStates(group);
+                    moved=new ArrayList<>();
+                    for(Integer orderID:group) {
+                        if(Integer.valueOf(state).equals(after.get(orderID))) {
+                            moved.add(orderID);
+                        } else {
+                            result.put(orderID,after.containsKey(orderID)?RESULT_CONFLICT:RESULT_NOT_FOUND);
+                        }
+                    }
+                    if(moved.size()!=updated) {
+                        throw new StateConflictException("订单状态已被并发修改，请重试");
+                    }
+                }
+                if(moved.isEmpty()) {
+                    continue;
+                }
+                for(Integer orderID:moved) {
+                    result.put(orderID,RESULT_OK);
+                }
+                rowCountService.add(stateKey(previous),-moved.size());
+                rowCountService.add(stateKey(state),moved.size());
+                orderRollupService.move(moved,previous,state);
+                orderJournalService.changed(moved,state);
+            }
+        }
+        return result;
+    }
+
+    private static String stateKey(int state) {
+        return "order:state:"+state;
+    }
+
+    private static String userKey(String userID) {
+        return "order:user:"+userID;
+    }
+
+    /**
+     * 释放批量变更成功的订单占用的时段
+     */
+    private Map<Integer,String> releaseAll(Map<Integer,String> result) {
+        List<Integer> released=new ArrayList<>();
+        for(Map.Entry<Integer,String> entry:result.entrySet()) {
+            if(RESULT_OK.equals(entry.getValue())) {
+                released.add(entry.getKey());
+            }
+        }
+        slotLedgerService.releaseAll(released);
+        for(Integer orderID:released) {
+            promoteOnCommit(release(orderID));
+        }
+        return result;
+    }
+
+    private Map<Integer,Integer> findStates(Collection<Integer> orderIDs) {
+        Map<Integer,Integer> states=new HashMap<>();
+        for(Object[] row:orderDao.findStates(orderIDs)) {
+            states.put(((Number)row[0]).intValue(),((Number)row[1]).intValue());
+        }
+        return states;
+    }
+
+    /**
+     * 先用内存索引快速判断, 索引认为已占用时再以台账为准确认, 避免其他节点释放时段后本节点索引过期导致误判
+     * 真正防止重复预约的是台账的唯一键
+     */
+    private void checkFree(Order order) {
+        if(order.getHours()<=0) {
+            throw new RuntimeException("预约时长无效");
+        }
+        if(lotteryService.isReserved(order.getVenueID(),order.getStartTime(),order.getHours())) {
+            throw new SlotConflictException("该时段通过抽签分配，请参加抽签");
+        }
+        if(slotHoldService.isHeld(order.getVenueID(),order.getStartTime(),order.getHours(),order.getUserID())) {
+            throw new SlotConflictException("该时段已被他人预留",slotSuggestionService.suggest(order,ALTERNATIVES));
+        }
+        if(!availabilityService.isFree(order.getVenueID(),order.getStartTime(),order.getHours())
+                && slotLedgerService.isTaken(order.getVenueID(),order.getStartTime(),order.getHours())) {
+            throw conflict(order);
+        }
+    }
+
+    /**
+     * 台账的唯一键兜底拦下并发的重复预约时, 同样附带推荐时段
+     */
+    private void occupy(Order order) {
+        try {
+            slotLedgerService.occupy(order);
+        } catch (SlotConflictException e) {
+            throw conflict(order);
+        }
+    }
+
+    private SlotConflictException conflict(Order order) {
+        return new SlotConflictException("该时段已被预订",slotSuggestionService.suggest(order,ALTERNATIVES));
+    }
+
+    /**
+     * 事务提交后把释放的时段交给候补用户, 不需要轮询订单表
+     *
+     * @param freed 释放前索引中的订单快照, 没有则为null
+     */
+    private void promoteOnCommit(Order freed) {
+        if(freed==null) {
+            return;
+        }
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            promote(freed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                promote(freed);
+            }
+        });
+    }
+
+    /**
+     * 按加入顺序尝试候补, 每位在独立的事务中下单, 时段仍被占用或下单失败时继续看下一位
+     */
+    private void promote(Order freed) {
+        TransactionTemplate transaction=new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for(WaitlistEntry entry:waitlistService.candidates(freed.getVenueID(),freed.getStartTime(),freed.getHours())) {
+            if(!availabilityService.isFree(entry.getVenueID(),entry.getStartTime(),entry.getHours())) {
+                continue;
+            }
+            try {
+                transaction.execute(status -> {
+                    create(venueDao.findByVenueID(entry.getVenueID()),entry.getStartTime(),entry.getHours(),entry.getUserID(),true);
+                    waitlistService.promoted(entry);
+                    return null;
+                });
+            } catch(RuntimeException e) {
+                // 释放时段的事务已经提交, 候补失败不能影响它
+            }
+        }
+    }
+
+    /**
+     * 从占用索引和配额中移出订单, 事务回滚时恢复
+     *
+     * @return 释放前索引中的订单快照, 没有则为null
+     */
+    private Order release(int orderID) {
+        Order freed=availabilityService.release(orderID);
+        if(freed!=null) {
+            quotaService.add(freed,-1);
+        }
+        restoreOnRollback(orderID,freed);
+        return freed;
+    }
+
+    /**
+     * 计入配额, 事务回滚时归还
+     */
+    private void acquireQuota(List<Order> orders, boolean check) {
+        if(check) {
+            quotaService.acquire(orders);
+        } else {
+            for(Order order:orders) {
+                quotaService.add(order,1);
+            }
+        }
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                    for(Order order:orders) {
+                        quotaService.add(order,-1);
+                    }
+                }
+            }
+        });
+    }
+
+    private void restoreHoldOnRollback(SlotHold hold) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                    slotHoldService.restore(hold);
+                }
+            }
+        });
+    }
+
+    /**
+     * 事务回滚时把占用索引恢复成修改前的样子
+     *
+     * @param orderID 本次修改的订单
+     * @param previous 修改前索引中的订单快照, 没有则为null
+     */
+    private void restoreOnRollback(int orderID, Order previous) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if(status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                    availabilityService.release(orderID);
+                    if(previous != null) {
+                        availabilityService.book(previous);
+                        quotaService.add(previous,1);
+                    }
+                }
+            }
+        });
     }
 }
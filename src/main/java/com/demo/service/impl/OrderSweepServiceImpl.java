@@ -0,0 +1,77 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.vo.SweepStats;
+import com.demo.service.OrderService;
+import com.demo.service.OrderSweepService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class OrderSweepServiceImpl implements OrderSweepService {
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${order.sweeper.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong lastMillis = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicReference<LocalDateTime> lastRunTime = new AtomicReference<>();
+
+    @Override
+    @Scheduled(initialDelayString = "${order.sweeper.delay:300000}", fixedDelayString = "${order.sweeper.delay:300000}")
+    public void sweep() {
+        long begin = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        finished.addAndGet(sweep(OrderService.STATE_WAIT, now, true));
+        expired.addAndGet(sweep(OrderService.STATE_NO_AUDIT, now, false));
+        long cost = System.currentTimeMillis() - begin;
+        lastMillis.set(cost);
+        totalMillis.addAndGet(cost);
+        lastRunTime.set(now);
+        runs.incrementAndGet();
+    }
+
+    /**
+     * 每批最多batchSize个订单, 取到的不足一批时说明已处理完
+     */
+    private long sweep(int state, LocalDateTime now, boolean finish) {
+        long count = 0;
+        while (true) {
+            List<Integer> orderIDs = orderDao.findPastDueID(state, now, batchSize);
+            if (orderIDs.isEmpty()) {
+                break;
+            }
+            Map<Integer, String> result = finish ? orderService.finishOrders(orderIDs) : orderService.expireOrders(orderIDs);
+            for (String outcome : result.values()) {
+                if (OrderService.RESULT_OK.equals(outcome)) {
+                    count++;
+                }
+            }
+            if (orderIDs.size() < batchSize) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public SweepStats getStats() {
+        return new SweepStats(runs.get(), finished.get(), expired.get(), lastMillis.get(), totalMillis.get(), lastRunTime.get());
+    }
+}
@@ -11,7 +11,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class OrderVoServiceImpl implements OrderVoService {
@@ -24,19 +28,43 @@ public class OrderVoServiceImpl implements OrderVoService {
     @Override
     public OrderVo returnOrderVoByOrderID(int orderID) {
         Order order=orderDao.findByOrderID(orderID);
+        if(order==null) {
+            order=orderDao.findArchivedByOrderID(orderID);
+        }
+        if(order==null) {
+            throw new RuntimeException("订单不存在");
+        }
         Venue venue=venueDao.findByVenueID(order.getVenueID());
-        OrderVo orderVo=new OrderVo(order.getOrderID(),order.getUserID(),order.getVenueID(),venue.getVenueName(),
-                                    order.getState(),order.getOrderTime(),order.getStartTime(),order.getHours(),order.getTotal());
-
-        return orderVo;
+        return toVo(order,venue);
     }
 
+    /**
+     * 批量组装订单视图: 直接使用传入的订单, 场馆信息用一次 IN 查询取回
+     * @param list
+     * @return
+     */
     @Override
     public List<OrderVo> returnVo(List<Order> list) {
-        List<OrderVo> list1=new ArrayList<>();
-        for(int i=0;i<list.size();i++) {
-            list1.add(returnOrderVoByOrderID(list.get(i).getOrderID()));
+        List<OrderVo> list1=new ArrayList<>(list.size());
+        if(list.isEmpty()) {
+            return list1;
+        }
+        Set<Integer> venueIDs=new HashSet<>();
+        for(Order order:list) {
+            venueIDs.add(order.getVenueID());
+        }
+        Map<Integer,Venue> venues=new HashMap<>();
+        for(Venue venue:venueDao.findAllById(venueIDs)) {
+            venues.put(venue.getVenueID(),venue);
+        }
+        for(Order order:list) {
+            list1.add(toVo(order,venues.get(order.getVenueID())));
         }
         return list1;
     }
+
+    private OrderVo toVo(Order order,Venue venue) {
+        return new OrderVo(order.getOrderID(),order.getUserID(),order.getVenueID(),venue==null?null:venue.getVenueName(),
+                order.getState(),order.getOrderTime(),order.getStartTime(),order.getHours(),order.getTotal());
+    }
 }
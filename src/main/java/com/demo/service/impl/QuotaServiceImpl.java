@@ -0,0 +1,228 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.service.OrderJournalService;
+import com.demo.service.OrderService;
+import com.demo.service.QuotaService;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class QuotaServiceImpl implements QuotaService {
+    /**
+     * 按用户分段加锁, 同一用户的检查和计入是原子的, 不同段的用户互不阻塞
+     */
+    private static final int STRIPES = 32;
+
+    /**
+     * 周计数的venueID, 场馆ID从1开始
+     */
+    private static final int WEEK = 0;
+
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private OrderJournalService orderJournalService;
+
+    /**
+     * 每个用户每周最多的有效订单数, 0为不限制
+     */
+    @Value("${order.quota.per-week:0}")
+    private int perWeek;
+
+    /**
+     * 每个用户在同一场馆每天最多的有效订单数, 0为不限制
+     */
+    @Value("${order.quota.per-venue-day:0}")
+    private int perVenueDay;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public QuotaServiceImpl() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    @PostConstruct
+    public void load() {
+        if (!orderJournalService.isRecovered()) {
+            resync();
+            return;
+        }
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.counts.clear();
+            }
+        }
+        LocalDate week = weekOf(LocalDate.now());
+        for (Order order : orderJournalService.recovered()) {
+            if (!order.getStartTime().toLocalDate().isBefore(week)) {
+                add(order, 1);
+            }
+        }
+    }
+
+    /**
+     * 每个节点只看得到本节点的增量, 多节点部署时定期用一次聚合查询重算, 节点间的偏差最多保留一个周期;
+     * 新的计数在锁外算好再逐段替换, 重算期间的检查不会看到清空的计数
+     */
+    @Override
+    @Scheduled(initialDelayString = "${order.quota.resync-delay:60000}", fixedDelayString = "${order.quota.resync-delay:60000}")
+    public void resync() {
+        if (perWeek <= 0 && perVenueDay <= 0) {
+            return;
+        }
+        LocalDate week = weekOf(LocalDate.now());
+        List<Object[]> rows = orderDao.countByUserVenueDay(Arrays.asList(OrderService.STATE_NO_AUDIT, OrderService.STATE_WAIT),
+                week.atStartOfDay());
+        List<Map<Key, Integer>> counts = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            counts.add(new HashMap<>());
+        }
+        for (Object[] row : rows) {
+            String userID = (String) row[0];
+            LocalDate day = LocalDate.parse(row[2].toString());
+            int count = ((Number) row[3]).intValue();
+            Map<Key, Integer> stripe = counts.get(index(userID));
+            stripe.merge(new Key(userID, ((Number) row[1]).intValue(), day), count, Integer::sum);
+            stripe.merge(new Key(userID, WEEK, weekOf(day)), count, Integer::sum);
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (stripes[i]) {
+                stripes[i].counts.clear();
+                stripes[i].counts.putAll(counts.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void acquire(List<Order> orders) {
+        Map<String, Map<Key, Integer>> byUser = new LinkedHashMap<>();
+        for (Order order : orders) {
+            Map<Key, Integer> wanted = byUser.computeIfAbsent(order.getUserID(), k -> new HashMap<>());
+            for (Key key : keys(order)) {
+                wanted.merge(key, 1, Integer::sum);
+            }
+        }
+        List<Map<Key, Integer>> acquired = new ArrayList<>();
+        for (Map.Entry<String, Map<Key, Integer>> entry : byUser.entrySet()) {
+            Key exceeded = null;
+            Stripe stripe = stripe(entry.getKey());
+            synchronized (stripe) {
+                for (Map.Entry<Key, Integer> wanted : entry.getValue().entrySet()) {
+                    Key key = wanted.getKey();
+                    if (limit(key) > 0 && stripe.counts.getOrDefault(key, 0) + wanted.getValue() > limit(key)) {
+                        exceeded = key;
+                        break;
+                    }
+                }
+                if (exceeded == null) {
+                    stripe.apply(entry.getValue(), 1);
+                }
+            }
+            if (exceeded != null) {
+                // 退回前面用户的计数要锁其他分段, 离开当前分段后再做, 避免两个分段互相等待
+                acquired.forEach(this::undo);
+                throw new RuntimeException(exceeded.venueID == WEEK ? "每周最多预约" + limit(exceeded) + "次"
+                        : "同一场馆每天最多预约" + limit(exceeded) + "次");
+            }
+            acquired.add(entry.getValue());
+        }
+    }
+
+    private int limit(Key key) {
+        return key.venueID == WEEK ? perWeek : perVenueDay;
+    }
+
+    @Override
+    public void add(Order order, int sign) {
+        Map<Key, Integer> delta = new HashMap<>();
+        for (Key key : keys(order)) {
+            delta.put(key, 1);
+        }
+        Stripe stripe = stripe(order.getUserID());
+        synchronized (stripe) {
+            stripe.apply(delta, sign);
+        }
+    }
+
+    /**
+     * 上周及更早的计数不再参与检查
+     */
+    @Scheduled(fixedDelayString = "${order.quota.purge-delay:3600000}")
+    public void purge() {
+        LocalDate week = weekOf(LocalDate.now());
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.counts.keySet().removeIf(key -> key.day.isBefore(week));
+            }
+        }
+    }
+
+    private void undo(Map<Key, Integer> acquired) {
+        Stripe stripe = stripe(acquired.keySet().iterator().next().userID);
+        synchronized (stripe) {
+            stripe.apply(acquired, -1);
+        }
+    }
+
+    private Stripe stripe(String userID) {
+        return stripes[index(userID)];
+    }
+
+    private static int index(String userID) {
+        return Math.floorMod(userID.hashCode(), STRIPES);
+    }
+
+    private static List<Key> keys(Order order) {
+        LocalDate day = order.getStartTime().toLocalDate();
+        return Arrays.asList(new Key(order.getUserID(), order.getVenueID(), day),
+                new Key(order.getUserID(), WEEK, weekOf(day)));
+    }
+
+    private static LocalDate weekOf(LocalDate day) {
+        return day.with(DayOfWeek.MONDAY);
+    }
+
+    /**
+     * 场馆日计数的day为当天, 周计数的day为周一
+     */
+    @Data
+    private static class Key {
+        private final String userID;
+        private final int venueID;
+        private final LocalDate day;
+    }
+
+    private static class Stripe {
+        private final Map<Key, Integer> counts = new HashMap<>();
+
+        void apply(Map<Key, Integer> delta, int sign) {
+            for (Map.Entry<Key, Integer> entry : delta.entrySet()) {
+                int count = counts.getOrDefault(entry.getKey(), 0) + sign * entry.getValue();
+                if (count > 0) {
+                    counts.put(entry.getKey(), count);
+                } else {
+                    counts.remove(entry.getKey());
+                }
+            }
+        }
+    }
+}
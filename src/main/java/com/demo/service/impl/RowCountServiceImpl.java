@@ -0,0 +1,88 @@
+package com.demo.service.impl;
+
+import com.demo.service.RowCountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Service
+public class RowCountServiceImpl implements RowCountService {
+
+    /**
+     * 缓存只维护本节点的修改, 多节点部署时靠过期重新查询来纠正其它节点造成的偏差
+     */
+    @Value("${order.row-count.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final ConcurrentHashMap<String, Count> counts = new ConcurrentHashMap<>();
+
+    /**
+     * 每次修改加一; 查询数据库期间有修改时不缓存查询结果, 避免把旧值写回缓存
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public long count(String key, LongSupplier loader) {
+        long now = System.nanoTime();
+        Count cached = counts.get(key);
+        if (cached != null && now - cached.expires < 0) {
+            return cached.value;
+        }
+        long before = version.get();
+        long loaded = loader.getAsLong();
+        if (version.get() == before) {
+            Count fresh = new Count(loaded, now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            if (cached == null) {
+                counts.putIfAbsent(key, fresh);
+            } else {
+                counts.replace(key, cached, fresh);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void add(String key, long delta) {
+        afterCommit(() -> {
+            version.incrementAndGet();
+            counts.computeIfPresent(key, (k, v) -> new Count(Math.max(0, v.value + delta), v.expires));
+        });
+    }
+
+    @Override
+    public void evict(String prefix) {
+        afterCommit(() -> {
+            version.incrementAndGet();
+            counts.keySet().removeIf(key -> key.startsWith(prefix));
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Count {
+        final long value;
+        final long expires;
+
+        Count(long value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
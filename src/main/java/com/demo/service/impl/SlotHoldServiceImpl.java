@@ -0,0 +1,247 @@
+package com.demo.service.impl;
+
+import com.demo.entity.vo.SlotHold;
+import com.demo.exception.SlotConflictException;
+import com.demo.service.AvailabilityService;
+import com.demo.service.LotteryService;
+import com.demo.service.SlotHoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class SlotHoldServiceImpl implements SlotHoldService {
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private LotteryService lotteryService;
+
+    @Value("${order.hold.minutes:10}")
+    private int holdMinutes;
+
+    @Value("${order.hold.max-per-user:3}")
+    private int maxPerUser;
+
+    private final ConcurrentHashMap<String, SlotHold> holds = new ConcurrentHashMap<>();
+
+    /**
+     * 每个场馆的预留列表, 对列表加锁后检查和修改, 不同场馆互不影响
+     */
+    private final ConcurrentHashMap<Integer, List<SlotHold>> venues = new ConcurrentHashMap<>();
+
+    /**
+     * 按到期时间排序, 定时任务只取出已到期的, 不需要扫描全部预留
+     */
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+
+    @Override
+    public SlotHold hold(String userID, int venueID, LocalDateTime startTime, int hours) {
+        if (hours <= 0) {
+            throw new RuntimeException("预约时长无效");
+        }
+        if (lotteryService.isReserved(venueID, startTime, hours)) {
+            throw new SlotConflictException("该时段通过抽签分配，请参加抽签");
+        }
+        Map<LocalDate, Integer> wanted = AvailabilityServiceImpl.spread(startTime, hours);
+        List<SlotHold> list = venue(venueID);
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (list) {
+            List<SlotHold> replaced = new ArrayList<>();
+            for (SlotHold other : list) {
+                if (overlaps(other, wanted) && (other.getUserID().equals(userID) || !other.getExpiresAt().isAfter(now))) {
+                    replaced.add(other);
+                }
+            }
+            if (crowded(list, venueID, startTime, hours, userID, now)) {
+                throw new SlotConflictException("该时段已被他人预留");
+            }
+            if (!availabilityService.isFree(venueID, startTime, hours)) {
+                throw new SlotConflictException("该时段已被预订");
+            }
+            if (countByUser(userID) - replaced.stream().filter(old -> old.getUserID().equals(userID)).count() >= maxPerUser) {
+                throw new RuntimeException("预留数量已达上限");
+            }
+            for (SlotHold old : replaced) {
+                list.remove(old);
+                holds.remove(old.getHoldID());
+            }
+            SlotHold hold = new SlotHold(UUID.randomUUID().toString(), userID, venueID, startTime, hours,
+                    now.plusMinutes(holdMinutes));
+            list.add(hold);
+            holds.put(hold.getHoldID(), hold);
+            expiries.add(new Expiry(hold));
+            return hold;
+        }
+    }
+
+    @Override
+    public void release(String holdID, String userID) {
+        SlotHold hold = holds.get(holdID);
+        if (hold != null && hold.getUserID().equals(userID)) {
+            remove(hold);
+        }
+    }
+
+    @Override
+    public SlotHold take(String holdID, String userID) {
+        SlotHold hold = holdID == null ? null : holds.get(holdID);
+        if (hold == null || !hold.getUserID().equals(userID) || !remove(hold)) {
+            throw new SlotConflictException("预留已失效，请重新选择时段");
+        }
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new SlotConflictException("预留已失效，请重新选择时段");
+        }
+        return hold;
+    }
+
+    @Override
+    public void restore(SlotHold hold) {
+        List<SlotHold> list = venue(hold.getVenueID());
+        synchronized (list) {
+            list.add(hold);
+            holds.put(hold.getHoldID(), hold);
+            expiries.add(new Expiry(hold));
+        }
+    }
+
+    @Override
+    public boolean isHeld(int venueID, LocalDateTime startTime, int hours, String exceptUserID) {
+        List<SlotHold> list = venues.get(venueID);
+        if (list == null) {
+            return false;
+        }
+        synchronized (list) {
+            return crowded(list, venueID, startTime, hours, exceptUserID, LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public int heldHours(int venueID, LocalDate day, String exceptUserID) {
+        List<SlotHold> list = venues.get(venueID);
+        if (list == null) {
+            return 0;
+        }
+        int[] held = new int[24];
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (list) {
+            for (SlotHold hold : list) {
+                if (!hold.getUserID().equals(exceptUserID) && hold.getExpiresAt().isAfter(now)) {
+                    int hours = AvailabilityServiceImpl.spread(hold.getStartTime(), hold.getHours()).getOrDefault(day, 0);
+                    for (int hour = 0; hour < 24; hour++) {
+                        held[hour] += hours >> hour & 1;
+                    }
+                }
+            }
+        }
+        int mask = 0;
+        for (int hour = 0; hour < 24; hour++) {
+            if (held[hour] > 0 && held[hour] >= availabilityService.remaining(venueID, day.atTime(hour, 0), 1)) {
+                mask |= 1 << hour;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${order.hold.expire-delay:1000}")
+    public void expire() {
+        Expiry expiry;
+        while ((expiry = expiries.poll()) != null) {
+            SlotHold hold = holds.get(expiry.hold.getHoldID());
+            // 已下单、已取消或被替换的预留不在holds中, 放回后重新入队的是新的Expiry
+            if (hold == expiry.hold) {
+                remove(hold);
+            }
+        }
+    }
+
+    private boolean remove(SlotHold hold) {
+        List<SlotHold> list = venue(hold.getVenueID());
+        synchronized (list) {
+            if (!holds.remove(hold.getHoldID(), hold)) {
+                return false;
+            }
+            for (Iterator<SlotHold> it = list.iterator(); it.hasNext(); ) {
+                if (it.next() == hold) {
+                    it.remove();
+                    break;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 是否有某个小时被他人的预留占满了剩余场地, 调用方需持有list的锁
+     */
+    private boolean crowded(List<SlotHold> list, int venueID, LocalDateTime startTime, int hours,
+                            String exceptUserID, LocalDateTime now) {
+        for (LocalDateTime hour : SlotLedgerServiceImpl.slots(startTime, hours)) {
+            Map<LocalDate, Integer> wanted = AvailabilityServiceImpl.spread(hour, 1);
+            int held = 0;
+            for (SlotHold hold : list) {
+                if (!hold.getUserID().equals(exceptUserID) && hold.getExpiresAt().isAfter(now) && overlaps(hold, wanted)) {
+                    held++;
+                }
+            }
+            if (held > 0 && held >= availabilityService.remaining(venueID, hour, 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long countByUser(String userID) {
+        return holds.values().stream().filter(hold -> hold.getUserID().equals(userID)).count();
+    }
+
+    private List<SlotHold> venue(int venueID) {
+        return venues.computeIfAbsent(venueID, id -> new ArrayList<>());
+    }
+
+    private static boolean overlaps(SlotHold hold, Map<LocalDate, Integer> wanted) {
+        for (Map.Entry<LocalDate, Integer> entry : AvailabilityServiceImpl.spread(hold.getStartTime(), hold.getHours()).entrySet()) {
+            Integer mask = wanted.get(entry.getKey());
+            if (mask != null && (mask & entry.getValue()) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Expiry implements Delayed {
+        private final SlotHold hold;
+
+        private final long deadline;
+
+        Expiry(SlotHold hold) {
+            this.hold = hold;
+            this.deadline = hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadline, ((Expiry) other).deadline);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.demo.service.impl;
+
+import com.demo.dao.OrderSlotDao;
+import com.demo.dao.SlotUsageDao;
+import com.demo.entity.Order;
+import com.demo.entity.OrderSlot;
+import com.demo.entity.SlotUsage;
+import com.demo.exception.SlotConflictException;
+import com.demo.service.OrderService;
+import com.demo.service.SlotLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class SlotLedgerServiceImpl implements SlotLedgerService {
+    @Autowired
+    private OrderSlotDao orderSlotDao;
+
+    @Autowired
+    private SlotUsageDao slotUsageDao;
+
+    /**
+     * 计数表为空时先按已有台账补齐计数, 再给还没有台账的有效订单补写时段, 历史上超出容量的小时保留先写入的订单
+     */
+    @PostConstruct
+    public void backfill() {
+        if (slotUsageDao.count() == 0) {
+            slotUsageDao.rebuild();
+        }
+        List<Order> orders = orderSlotDao.findOrdersWithoutSlots(Arrays.asList(OrderService.STATE_NO_AUDIT, OrderService.STATE_WAIT));
+        for (Order order : orders) {
+            List<OrderSlot> rows = rows(order);
+            slotUsageDao.ensureAll(rows);
+            List<OrderSlot> claimed = new ArrayList<>();
+            for (OrderSlot row : rows) {
+                if (claim(row)) {
+                    claimed.add(row);
+                }
+            }
+            orderSlotDao.insertAll(claimed);
+        }
+    }
+
+    @Override
+    public void occupy(Order order) {
+        occupyAll(Collections.singletonList(order));
+    }
+
+    /**
+     * 按 (venueID, slot_start) 排序后逐小时条件加一, 并发的多个订单总是以相同顺序加锁, 不会互相死锁
+     */
+    @Override
+    public void occupyAll(List<Order> orders) {
+        List<OrderSlot> rows = new ArrayList<>();
+        for (Order order : orders) {
+            rows.addAll(rows(order));
+        }
+        rows.sort(Comparator.comparingInt(OrderSlot::getVenueID).thenComparing(OrderSlot::getSlotStart));
+        slotUsageDao.ensureAll(rows);
+        for (OrderSlot row : rows) {
+            if (!claim(row)) {
+                throw new SlotConflictException("该时段已被预订");
+            }
+        }
+        orderSlotDao.insertAll(rows);
+    }
+
+    @Override
+    public void release(int orderID) {
+        releaseAll(Collections.singletonList(orderID));
+    }
+
+    /**
+     * 先按台账归还计数再删除台账, 重复释放时台账已空, 不会多减
+     */
+    @Override
+    public void releaseAll(Collection<Integer> orderIDs) {
+        if (!orderIDs.isEmpty()) {
+            slotUsageDao.releaseOrders(orderIDs);
+            orderSlotDao.deleteByOrderIDIn(orderIDs);
+        }
+    }
+
+    @Override
+    public boolean isTaken(int venueID, LocalDateTime startTime, int hours) {
+        return !slotUsageDao.findFullIn(venueID, slots(startTime, hours)).isEmpty();
+    }
+
+    @Override
+    public Set<LocalDateTime> findTaken(int venueID, LocalDateTime from, LocalDateTime to) {
+        return new HashSet<>(slotUsageDao.findFull(venueID, from, to));
+    }
+
+    @Override
+    public Map<LocalDateTime, Integer> findUsed(int venueID, LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, Integer> used = new HashMap<>();
+        for (SlotUsage usage : slotUsageDao.findUsed(venueID, from, to)) {
+            used.put(usage.getSlotStart(), usage.getUsed());
+        }
+        return used;
+    }
+
+    @Override
+    public int findMaxUsed(int venueID, LocalDateTime from) {
+        return slotUsageDao.findMaxUsed(venueID, from);
+    }
+
+    /**
+     * 容量以场馆表为准, 内存索引只用于下单前的快速检查, 其他节点改过的容量在这里也能拦住
+     */
+    private boolean claim(OrderSlot row) {
+        return slotUsageDao.claim(row.getVenueID(), row.getSlotStart()) > 0;
+    }
+
+    private static List<OrderSlot> rows(Order order) {
+        List<OrderSlot> rows = new ArrayList<>();
+        for (LocalDateTime slot : slots(order.getStartTime(), order.getHours())) {
+            rows.add(new OrderSlot(0, order.getOrderID(), order.getVenueID(), slot));
+        }
+        return rows;
+    }
+
+    static List<LocalDateTime> slots(LocalDateTime startTime, int hours) {
+        List<LocalDateTime> list = new ArrayList<>(hours);
+        LocalDateTime hour = startTime.truncatedTo(ChronoUnit.HOURS);
+        for (int i = 0; i < hours; i++) {
+            list.add(hour.plusHours(i));
+        }
+        return list;
+    }
+}
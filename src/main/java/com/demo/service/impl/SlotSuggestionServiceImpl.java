@@ -0,0 +1,81 @@
+package com.demo.service.impl;
+
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.SlotAlternative;
+import com.demo.service.AvailabilityService;
+import com.demo.service.SlotSuggestionService;
+import com.demo.utils.OpeningHours;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class SlotSuggestionServiceImpl implements SlotSuggestionService {
+    /**
+     * 同一场馆向前、向后最多尝试的小时数
+     */
+    private static final int MAX_SHIFT = 48;
+
+    @Autowired
+    private VenueDao venueDao;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    /**
+     * 普通读, 加入下单所在的事务, 冲突时不额外占用连接; 台账冲突只是条件UPDATE未命中, 不会弄脏持久化上下文
+     */
+    @Override
+    public List<SlotAlternative> suggest(Order order, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotAlternative> sameVenue = new ArrayList<>();
+        List<SlotAlternative> otherVenues = new ArrayList<>();
+        for (Venue venue : venueDao.findAll()) {
+            if (venue.getVenueID() == order.getVenueID()) {
+                sameVenue = nearest(venue, order.getStartTime(), order.getHours(), now, limit);
+            } else if (available(venue, order.getStartTime(), order.getHours())) {
+                otherVenues.add(alternative(venue, order.getStartTime(), order.getHours()));
+            }
+        }
+        otherVenues.sort(Comparator.comparingInt(SlotAlternative::getTotal).thenComparingInt(SlotAlternative::getVenueID));
+        List<SlotAlternative> result = new ArrayList<>(sameVenue);
+        result.addAll(otherVenues.subList(0, Math.min(limit, otherVenues.size())));
+        return result;
+    }
+
+    /**
+     * 按与原开始时间的距离由近到远, 前后交替尝试, 已过去的时间跳过
+     */
+    private List<SlotAlternative> nearest(Venue venue, LocalDateTime startTime, int hours, LocalDateTime now, int limit) {
+        List<SlotAlternative> list = new ArrayList<>();
+        for (int shift = 1; shift <= MAX_SHIFT && list.size() < limit; shift++) {
+            for (int sign = -1; sign <= 1 && list.size() < limit; sign += 2) {
+                LocalDateTime start = startTime.plusHours((long) sign * shift);
+                if (!start.isBefore(now) && available(venue, start, hours)) {
+                    list.add(alternative(venue, start, hours));
+                }
+            }
+        }
+        return list;
+    }
+
+    private boolean available(Venue venue, LocalDateTime start, int hours) {
+        int open = OpeningHours.mask(venue.getOpen_time(), venue.getClose_time());
+        for (int i = 0; i < hours; i++) {
+            if ((open & (1 << start.plusHours(i).getHour())) == 0) {
+                return false;
+            }
+        }
+        return availabilityService.isFree(venue.getVenueID(), start, hours);
+    }
+
+    private static SlotAlternative alternative(Venue venue, LocalDateTime start, int hours) {
+        return new SlotAlternative(venue.getVenueID(), venue.getVenueName(), start, hours, hours * venue.getPrice());
+    }
+}
@@ -2,17 +2,24 @@ package com.demo.service.impl;
 
 import com.demo.dao.UserDao;
 import com.demo.entity.User;
+import com.demo.service.RowCountService;
 import com.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class UserServiceImpl implements UserService {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private RowCountService rowCountService;
+
     @Override
     public User findByUserID(String userID) {
         return userDao.findByUserID(userID);
@@ -25,7 +32,13 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public Page<User> findByUserID(Pageable pageable) {
-        return userDao.findAllByIsadmin(0,pageable);
+        return rowCountService.page(userDao.findAllByIsadmin(0,pageable),pageable,
+                adminKey(0),()->userDao.countByIsadmin(0));
+    }
+
+    @Override
+    public List<User> findByUserIDSeek(int id, int size) {
+        return userDao.findAllByIsadminAndIdGreaterThanOrderByIdAsc(0,id,PageRequest.of(0,size));
     }
 
     @Override
@@ -36,22 +49,32 @@ public class UserServiceImpl implements UserService {
     @Override
     public int create(User user) {
         userDao.save(user);
-        return userDao.findAll().size();
+        rowCountService.add(adminKey(user.getIsadmin()),1);
+        return (int)userDao.count();
     }
 
     @Override
     public void delByID(int id) {
+        User user=userDao.findById(id);
         userDao.deleteById(id);
+        if(user!=null) {
+            rowCountService.add(adminKey(user.getIsadmin()),-1);
+        }
     }
 
 
     @Override
     public void updateUser(User user) {
         userDao.save(user);
+        rowCountService.evict("user:");
     }
 
     @Override
     public int countUserID(String userID) {
         return userDao.countByUserID(userID);
     }
+
+    private static String adminKey(int isadmin) {
+        return "user:isadmin:"+isadmin;
+    }
 }
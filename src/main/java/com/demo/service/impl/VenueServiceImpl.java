@@ -2,22 +2,45 @@ package com.demo.service.impl;
 
 import com.demo.dao.VenueDao;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.FreeVenue;
+import com.demo.service.AvailabilityService;
+import com.demo.service.RowCountService;
+import com.demo.service.SlotLedgerService;
 import com.demo.service.VenueService;
+import com.demo.utils.OpeningHours;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class VenueServiceImpl implements VenueService {
+    private static final String COUNT_KEY="venue";
+
     @Autowired
     private VenueDao venueDao;
 
+    @Autowired
+    private RowCountService rowCountService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private SlotLedgerService slotLedgerService;
+
     @Override
     public Venue findByVenueID(int id) {
-        return venueDao.getOne(id);
+        return venueDao.findByVenueID(id);
     }
 
     @Override
@@ -27,7 +50,7 @@ public class VenueServiceImpl implements VenueService {
 
     @Override
     public Page<Venue> findAll(Pageable pageable) {
-        return venueDao.findAll(pageable);
+        return rowCountService.page(venueDao.findSlice(pageable),pageable,COUNT_KEY,venueDao::count);
     }
 
     @Override
@@ -35,23 +58,65 @@ public class VenueServiceImpl implements VenueService {
         return venueDao.findAll();
     }
 
+    @Override
+    public List<Venue> findSeek(int venueID, int size) {
+        return venueDao.findAllByVenueIDGreaterThanOrderByVenueIDAsc(venueID,PageRequest.of(0,size));
+    }
+
     @Override
     public int create(Venue venue) {
-        return venueDao.save(venue).getVenueID();
+        int venueID=venueDao.save(venue).getVenueID();
+        availabilityService.setCapacity(venueID,venue.getCapacity());
+        rowCountService.add(COUNT_KEY,1);
+        return venueID;
     }
 
     @Override
     public void update(Venue venue) {
         venueDao.save(venue);
+        availabilityService.setCapacity(venue.getVenueID(),venue.getCapacity());
     }
 
     @Override
     public void delById(int id) {
         venueDao.deleteById(id);
+        rowCountService.add(COUNT_KEY,-1);
     }
 
     @Override
     public int countVenueName(String venueName) {
         return venueDao.countByVenueName(venueName);
     }
+
+    @Override
+    public int findMaxBooked(int venueID) {
+        return slotLedgerService.findMaxUsed(venueID,LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+    }
+
+    @Override
+    public List<FreeVenue> findFree(LocalDate day, int fromHour, int toHour, int hours, Integer maxPrice, String keyword) {
+        if(hours<1 || fromHour<0 || toHour>24 || toHour-fromHour<hours) {
+            throw new RuntimeException("查询时段无效");
+        }
+        Map<Integer,Integer> taken=availabilityService.takenHours(day);
+        List<FreeVenue> result=new ArrayList<>();
+        for(Venue venue:venueDao.findAll()) {
+            if(maxPrice!=null && venue.getPrice()>maxPrice) {
+                continue;
+            }
+            if(keyword!=null && !keyword.isEmpty() && (venue.getAddress()==null || !venue.getAddress().contains(keyword))) {
+                continue;
+            }
+            int free=OpeningHours.mask(venue.getOpen_time(),venue.getClose_time())&~taken.getOrDefault(venue.getVenueID(),0);
+            for(int start=fromHour;start+hours<=toHour;start++) {
+                int block=OpeningHours.block(start,hours);
+                if((free&block)==block) {
+                    result.add(new FreeVenue(venue,day.atTime(start,0),hours,hours*venue.getPrice()));
+                    break;
+                }
+            }
+        }
+        result.sort(Comparator.comparingInt(FreeVenue::getTotal).thenComparing(f->f.getVenue().getVenueID()));
+        return result;
+    }
 }
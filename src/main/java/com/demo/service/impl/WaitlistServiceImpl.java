@@ -0,0 +1,161 @@
+package com.demo.service.impl;
+
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.WaitlistEntry;
+import com.demo.service.AvailabilityService;
+import com.demo.service.SlotHoldService;
+import com.demo.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+    @Autowired
+    private WaitlistDao waitlistDao;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    /**
+     * 场馆 -> 小时 -> 覆盖该小时的候补, 按加入顺序; 对每个场馆的TreeMap加锁后读写
+     */
+    private final ConcurrentHashMap<Integer, TreeMap<LocalDateTime, List<WaitlistEntry>>> venues = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        for (WaitlistEntry entry : waitlistDao.findAllByStartTimeAfterOrderByIdAsc(LocalDateTime.now())) {
+            add(entry);
+        }
+    }
+
+    @Override
+    public WaitlistEntry join(String userID, int venueID, LocalDateTime startTime, int hours) {
+        if (hours <= 0) {
+            throw new RuntimeException("预约时长无效");
+        }
+        if (!startTime.isAfter(LocalDateTime.now())) {
+            throw new RuntimeException("该时段已开始");
+        }
+        if (availabilityService.isFree(venueID, startTime, hours) && !slotHoldService.isHeld(venueID, startTime, hours, userID)) {
+            throw new RuntimeException("该时段空闲，请直接预约");
+        }
+        for (WaitlistEntry other : overlapping(venueID, startTime, hours)) {
+            if (other.getUserID().equals(userID)) {
+                throw new RuntimeException("已在该时段的候补队列中");
+            }
+        }
+        WaitlistEntry entry = waitlistDao.save(new WaitlistEntry(0, userID, venueID, startTime, hours, LocalDateTime.now()));
+        add(entry);
+        return entry;
+    }
+
+    @Override
+    public void leave(int id, String userID) {
+        waitlistDao.findById(id).filter(entry -> entry.getUserID().equals(userID)).ifPresent(entry -> {
+            waitlistDao.delete(entry);
+            remove(entry);
+        });
+    }
+
+    @Override
+    public List<WaitlistEntry> findByUser(String userID) {
+        return waitlistDao.findAllByUserIDOrderByStartTimeAsc(userID);
+    }
+
+    @Override
+    public List<WaitlistEntry> candidates(int venueID, LocalDateTime startTime, int hours) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> list = new ArrayList<>();
+        for (WaitlistEntry entry : overlapping(venueID, startTime, hours)) {
+            if (entry.getStartTime().isAfter(now)) {
+                list.add(entry);
+            }
+        }
+        list.sort(Comparator.comparingInt(WaitlistEntry::getId));
+        return list;
+    }
+
+    @Override
+    public void promoted(WaitlistEntry entry) {
+        waitlistDao.deleteById(entry.getId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                remove(entry);
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${order.waitlist.purge-delay:3600000}", fixedDelayString = "${order.waitlist.purge-delay:3600000}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        waitlistDao.deleteByStartTimeBefore(now);
+        for (TreeMap<LocalDateTime, List<WaitlistEntry>> hours : venues.values()) {
+            synchronized (hours) {
+                hours.headMap(now).clear();
+            }
+        }
+    }
+
+    private Set<WaitlistEntry> overlapping(int venueID, LocalDateTime startTime, int hours) {
+        Set<WaitlistEntry> set = new LinkedHashSet<>();
+        TreeMap<LocalDateTime, List<WaitlistEntry>> map = venues.get(venueID);
+        if (map == null) {
+            return set;
+        }
+        synchronized (map) {
+            for (LocalDateTime slot : SlotLedgerServiceImpl.slots(startTime, hours)) {
+                List<WaitlistEntry> entries = map.get(slot);
+                if (entries != null) {
+                    set.addAll(entries);
+                }
+            }
+        }
+        return set;
+    }
+
+    private void add(WaitlistEntry entry) {
+        TreeMap<LocalDateTime, List<WaitlistEntry>> map = venues.computeIfAbsent(entry.getVenueID(), id -> new TreeMap<>());
+        synchronized (map) {
+            for (LocalDateTime slot : SlotLedgerServiceImpl.slots(entry.getStartTime(), entry.getHours())) {
+                map.computeIfAbsent(slot, s -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    private void remove(WaitlistEntry entry) {
+        TreeMap<LocalDateTime, List<WaitlistEntry>> map = venues.get(entry.getVenueID());
+        if (map == null) {
+            return;
+        }
+        synchronized (map) {
+            for (LocalDateTime slot : SlotLedgerServiceImpl.slots(entry.getStartTime(), entry.getHours())) {
+                List<WaitlistEntry> entries = map.get(slot);
+                if (entries != null && entries.removeIf(other -> other.getId() == entry.getId()) && entries.isEmpty()) {
+                    map.remove(slot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.demo.utils;
+
+import java.time.LocalTime;
+
+/**
+ * 场馆开放时间与小时位图的转换, 第i位对应i点到i+1点
+ */
+public class OpeningHours {
+
+    public static final int ALL_DAY = (1 << 24) - 1;
+
+    /**
+     * 开放时间内的整点时段, 如08:00-20:00为第8到19位; 未设置时视为全天开放
+     *
+     * @param openTime 如08:00
+     * @param closeTime 如20:00, 允许24:00
+     * @return
+     */
+    public static int mask(String openTime, String closeTime) {
+        if (openTime == null || openTime.isEmpty() || closeTime == null || closeTime.isEmpty()) {
+            return ALL_DAY;
+        }
+        int open = hour(openTime, true);
+        int close = hour(closeTime, false);
+        int mask = 0;
+        for (int h = open; h < close; h++) {
+            mask |= 1 << h;
+        }
+        return mask;
+    }
+
+    /**
+     * 从start点开始连续hours个小时的位图
+     */
+    public static int block(int start, int hours) {
+        return ((1 << hours) - 1) << start;
+    }
+
+    private static int hour(String time, boolean roundUp) {
+        if (time.startsWith("24")) {
+            return 24;
+        }
+        LocalTime t = LocalTime.parse(time.length() == 4 ? "0" + time : time);
+        return roundUp && (t.getMinute() > 0 || t.getSecond() > 0) ? t.getHour() + 1 : t.getHour();
+    }
+}
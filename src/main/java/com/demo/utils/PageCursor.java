@@ -0,0 +1,63 @@
+package com.demo.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置: 排序字段的值加上主键, 对前端是一个不透明的字符串
+ */
+public class PageCursor {
+
+    /**
+     * 倒序翻页第一页使用的起点, 比任何记录都大
+     */
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final LocalDateTime time;
+
+    private final int id;
+
+    private PageCursor(LocalDateTime time, int id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static String encode(LocalDateTime time, int id) {
+        String raw = (time == null ? "" : time.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(int id) {
+        return encode(null, id);
+    }
+
+    /**
+     * 解析游标, 为空时返回第一页的起点
+     *
+     * @param cursor
+     * @param desc 是否倒序, 倒序的起点是最大值, 正序的起点是0
+     * @return
+     */
+    public static PageCursor decode(String cursor, boolean desc) {
+        if (cursor == null || cursor.isEmpty()) {
+            return desc ? new PageCursor(MAX_TIME, Integer.MAX_VALUE) : new PageCursor(null, 0);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf('|');
+            String time = raw.substring(0, split);
+            return new PageCursor(time.isEmpty() ? null : LocalDateTime.parse(time), Integer.parseInt(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
@@ -8,9 +8,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.mockito.Mockito.*;
 import static org.mockito.BDDMockito.given;
 
+import com.demo.controller.ConflictExceptionHandler;
 import com.demo.entity.Order;
 import com.demo.entity.vo.OrderVo;
+import com.demo.entity.vo.SweepStats;
+import com.demo.exception.StateConflictException;
+import com.demo.service.OrderArchiveService;
 import com.demo.service.OrderService;
+import com.demo.service.OrderSweepService;
 import com.demo.service.OrderVoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +25,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,9 +36,13 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class AdminOrderControllerTest {
@@ -44,13 +55,20 @@ public class AdminOrderControllerTest {
     @Mock
     private OrderVoService orderVoService;
 
+    @Mock
+    private OrderSweepService orderSweepService;
+
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     @InjectMocks
     private AdminOrderController adminOrderController;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(adminOrderController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(adminOrderController)
+                .setControllerAdvice(new ConflictExceptionHandler()).build();
     }
 
     @ExceptionHandler(RuntimeException.class)
@@ -60,30 +78,42 @@ public class AdminOrderControllerTest {
 
     @Test
     public void testReservation_manage() throws Exception {
-        // 模拟findAuditOrder()方法返回的订单列表
         List<Order> mockOrders = new ArrayList<>();
         mockOrders.add(new Order());
-        // 设置orderService的行为
-        when(orderService.findAuditOrder()).thenReturn(mockOrders);
-
-        // 模拟returnVo()方法返回的订单视图列表
-        List<OrderVo> mockOrderVos = new ArrayList<>();
-        mockOrderVos.add(new OrderVo());
-        // 设置orderVoService的行为
-        when(orderVoService.returnVo(mockOrders)).thenReturn(mockOrderVos);
 
         // 模拟findNoAuditOrder()方法返回的未审核订单的总页数
         Page<Order> orderPage = new PageImpl<>(mockOrders);
         when(orderService.findNoAuditOrder(any())).thenReturn(orderPage);
 
+        // 已审核订单只返回总页数, 列表由getAuditOrderList.do分页加载
+        Page<Order> auditPage = new PageImpl<>(mockOrders, PageRequest.of(0, 10), 25);
+        when(orderService.findAuditOrder(any(Pageable.class))).thenReturn(auditPage);
+
         // 执行GET请求并验证响应
         mockMvc.perform(get("/reservation_manage"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin/reservation_manage"))
-                .andExpect(model().attributeExists("order_list"))
-                .andExpect(model().attribute("order_list", mockOrderVos))
+                .andExpect(model().attributeDoesNotExist("order_list"))
                 .andExpect(model().attributeExists("total"))
-                .andExpect(model().attribute("total", mockOrders.size()));
+                .andExpect(model().attribute("total", mockOrders.size()))
+                .andExpect(model().attribute("audit_total", 3));
+        verify(orderVoService, never()).returnVo(any());
+    }
+
+    @Test
+    public void testGetAuditOrder() throws Exception {
+        List<Order> mockOrders = new ArrayList<>();
+        mockOrders.add(new Order());
+        List<OrderVo> mockOrderVos = new ArrayList<>();
+        mockOrderVos.add(new OrderVo());
+
+        when(orderService.findAuditOrder(PageRequest.of(1, 10, Sort.by("orderTime").descending())))
+                .thenReturn(new PageImpl<>(mockOrders));
+        when(orderVoService.returnVo(mockOrders)).thenReturn(mockOrderVos);
+
+        mockMvc.perform(get("/admin/getAuditOrderList.do").param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
     }
 
     @Test
@@ -137,6 +167,63 @@ public class AdminOrderControllerTest {
                 .andExpect(result -> assertTrue(result.getResolvedException() instanceof RuntimeException));
     }
 
+    @Test
+    public void testConfirmOrderStateConflict() throws Exception {
+        // 模拟订单已被其他管理员处理
+        doThrow(new StateConflictException("订单状态已变更，无法执行该操作")).when(orderService).confirmOrder(anyInt());
+
+        mockMvc.perform(post("/passOrder.do").param("orderID", "123"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("订单状态已变更，无法执行该操作"));
+    }
+
+    @Test
+    public void testConfirmOrders() throws Exception {
+        Map<Integer, String> mockResult = new LinkedHashMap<>();
+        mockResult.put(1, OrderService.RESULT_OK);
+        mockResult.put(2, OrderService.RESULT_CONFLICT);
+        when(orderService.confirmOrders(Arrays.asList(1, 2))).thenReturn(mockResult);
+
+        mockMvc.perform(post("/passOrders.do").param("orderIDs", "1", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1").value("ok"))
+                .andExpect(jsonPath("$.2").value("conflict"));
+    }
+
+    @Test
+    public void testRejectOrdersByVenueAndDate() throws Exception {
+        List<Integer> ids = Arrays.asList(3, 4);
+        when(orderService.findNoAuditOrderID(1, LocalDate.of(2024, 4, 16))).thenReturn(ids);
+        Map<Integer, String> mockResult = new LinkedHashMap<>();
+        mockResult.put(3, OrderService.RESULT_OK);
+        mockResult.put(4, OrderService.RESULT_OK);
+        when(orderService.rejectOrders(ids)).thenReturn(mockResult);
+
+        mockMvc.perform(post("/rejectOrders.do").param("venueID", "1").param("date", "2024-04-16"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    public void testGetSweepStats() throws Exception {
+        when(orderSweepService.getStats()).thenReturn(new SweepStats(2, 10, 3, 15, 40, null));
+
+        mockMvc.perform(get("/admin/getSweepStats.do"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runs").value(2))
+                .andExpect(jsonPath("$.finished").value(10))
+                .andExpect(jsonPath("$.expired").value(3));
+    }
+
+    @Test
+    public void testArchiveOrders() throws Exception {
+        when(orderArchiveService.archive()).thenReturn(1200);
+
+        mockMvc.perform(post("/admin/archiveOrders.do"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1200"));
+    }
+
     @Test
     public void testRejectOrder() throws Exception {
         // 模拟拒绝订单成功
@@ -199,6 +199,28 @@ class AdminVenueControllerTest {
         assertEquals("newName", venue.getVenueName());
         assertEquals("上海市虹口区", venue.getAddress());
     }
+    @Test
+    void testModifyVenue_capacity_below_booked() throws Exception {
+        Venue venue = new Venue(1, "test", "体育馆", 1000, "", "address", "08:00", "20:00", 3);
+        when(venueService.findByVenueID(venue.getVenueID())).thenReturn(venue);
+        when(venueService.findMaxBooked(venue.getVenueID())).thenReturn(2);
+
+        MockHttpServletRequestBuilder requestBuilder = multipart("/modifyVenue.do")
+                .file(new MockMultipartFile("picture", new byte[]{}))
+                .param("venueID", String.valueOf(venue.getVenueID()))
+                .param("venueName", "test")
+                .param("address", "address")
+                .param("description", "体育馆")
+                .param("price", "1000")
+                .param("open_time", "08:00")
+                .param("close_time", "20:00")
+                .param("capacity", "1");
+
+        assertThrows(Exception.class, () -> this.mockMvc.perform(requestBuilder));
+        verify(venueService, never()).update(any());
+        assertEquals(3, venue.getCapacity());
+    }
+
     @Test
     void testModifyVenue_lack_of_params() throws Exception {
         MockHttpServletRequestBuilder requestBuilder = post("/modifyVenue.do");
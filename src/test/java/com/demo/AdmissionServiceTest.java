@@ -0,0 +1,94 @@
+package com.demo;
+
+import com.demo.entity.vo.AdmissionTicket;
+import com.demo.service.OrderService;
+import com.demo.service.impl.AdmissionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class AdmissionServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private AdmissionServiceImpl admissionService;
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 4, 16, 18, 0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(admissionService, "capacity", 3);
+        // 速率为0时后台不处理, 由测试手动drain
+        ReflectionTestUtils.setField(admissionService, "rate", 0);
+        admissionService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        admissionService.stop();
+    }
+
+    @Test
+    public void testQueuePositionAndOrder() {
+        assertEquals(1, admissionService.enqueue("u1", "A", start, 1).getPosition());
+        assertEquals(2, admissionService.enqueue("u2", "A", start, 2).getPosition());
+        assertEquals(3, admissionService.enqueue("u3", "B", start, 1).getPosition());
+        assertThrows(RuntimeException.class, () -> admissionService.enqueue("u4", "B", start, 1));
+        assertThrows(RuntimeException.class, () -> admissionService.enqueue("u1", "B", start, 1));
+
+        assertEquals(2, admissionService.drain(2));
+        InOrder inOrder = inOrder(orderService);
+        inOrder.verify(orderService).submit("A", start, 1, "u1");
+        inOrder.verify(orderService).submit("A", start, 2, "u2");
+        assertEquals(AdmissionTicket.STATE_DONE, admissionService.status("u1").getState());
+        assertEquals(1, admissionService.status("u3").getPosition());
+        assertEquals(1, admissionService.queued());
+    }
+
+    @Test
+    public void testFailedSubmit() {
+        doThrow(new RuntimeException("该时段已被预订")).when(orderService).submit(any(), any(LocalDateTime.class), anyInt(), any());
+        admissionService.enqueue("u1", "A", start, 1);
+
+        admissionService.drain(10);
+
+        AdmissionTicket ticket = admissionService.status("u1");
+        assertEquals(AdmissionTicket.STATE_FAILED, ticket.getState());
+        assertEquals("该时段已被预订", ticket.getMessage());
+        assertEquals(0, ticket.getPosition());
+        // 处理完后可以再次排队
+        assertEquals(1, admissionService.enqueue("u1", "A", start.plusHours(1), 1).getPosition());
+        assertNull(admissionService.status("u2"));
+    }
+
+    @Test
+    public void testPurgeExpiredResults() {
+        admissionService.enqueue("u1", "A", start, 1);
+        admissionService.enqueue("u2", "A", start, 1);
+        admissionService.drain(1);
+        @SuppressWarnings("unchecked")
+        Map<String, AdmissionTicket> tickets = (Map<String, AdmissionTicket>) ReflectionTestUtils.getField(admissionService, "tickets");
+        tickets.get("u1").setFinishTime(LocalDateTime.now().minusHours(1));
+
+        admissionService.purge();
+
+        assertFalse(tickets.containsKey("u1"));
+        assertTrue(tickets.containsKey("u2"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.demo;
+
+import com.demo.dao.OrderDao;
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.service.OrderJournalService;
+import com.demo.service.impl.AvailabilityServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+public class AvailabilityServiceTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @Mock
+    private OrderJournalService orderJournalService;
+
+    @Mock
+    private VenueDao venueDao;
+
+    @InjectMocks
+    private AvailabilityServiceImpl availabilityService;
+
+    private final LocalDateTime day = LocalDateTime.of(2024, 4, 16, 0, 0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        // 启动时已有一个10点到12点的订单
+        List<Order> orders = new ArrayList<>();
+        orders.add(order(1, 1, day.plusHours(10), 2));
+        when(orderDao.findAllByStateIn(anyCollection())).thenReturn(orders);
+        availabilityService.load();
+    }
+
+    private Order order(int orderID, int venueID, LocalDateTime startTime, int hours) {
+        Order order = new Order();
+        order.setOrderID(orderID);
+        order.setVenueID(venueID);
+        order.setStartTime(startTime);
+        order.setHours(hours);
+        order.setState(1);
+        return order;
+    }
+
+    @Test
+    public void testLoad() {
+        assertEquals((1 << 10) | (1 << 11), availabilityService.takenHours(1, day.toLocalDate()));
+        assertEquals(1, availabilityService.findDateOrder(1, day, day.plusDays(1)).size());
+        assertEquals(0, availabilityService.takenHours(2, day.toLocalDate()));
+    }
+
+    @Test
+    public void testTryBookConflict() {
+        // 11点与已有订单重叠
+        assertFalse(availabilityService.tryBook(order(2, 1, day.plusHours(11), 2)));
+        assertFalse(availabilityService.isFree(1, day.plusHours(9), 2));
+        // 其他场馆同一时间不受影响
+        assertTrue(availabilityService.tryBook(order(3, 2, day.plusHours(11), 2)));
+        // 紧挨着的时段可以预约
+        assertTrue(availabilityService.tryBook(order(4, 1, day.plusHours(12), 1)));
+    }
+
+    @Test
+    public void testCapacity() {
+        availabilityService.setCapacity(3, 2);
+        assertEquals(2, availabilityService.remaining(3, day.plusHours(10), 2));
+        assertTrue(availabilityService.tryBook(order(6, 3, day.plusHours(10), 2)));
+        // 还剩一块场地, 未约满
+        assertEquals(0, availabilityService.takenHours(3, day.toLocalDate()));
+        assertTrue(availabilityService.tryBook(order(7, 3, day.plusHours(11), 1)));
+        assertEquals(1 << 11, availabilityService.takenHours(3, day.toLocalDate()));
+        assertFalse(availabilityService.tryBook(order(8, 3, day.plusHours(11), 2)));
+        assertEquals(1, availabilityService.remaining(3, day.plusHours(10), 1));
+
+        availabilityService.release(7);
+        assertTrue(availabilityService.isFree(3, day.plusHours(11), 1));
+    }
+
+    @Test
+    public void testRelease() {
+        Order released = availabilityService.release(1);
+        assertNotNull(released);
+        assertEquals(0, availabilityService.takenHours(1, day.toLocalDate()));
+        assertTrue(availabilityService.isFree(1, day.plusHours(10), 2));
+        assertNull(availabilityService.release(1));
+    }
+
+    @Test
+    public void testAcrossMidnight() {
+        assertTrue(availabilityService.tryBook(order(5, 1, day.plusHours(23), 2)));
+        LocalDate next = day.toLocalDate().plusDays(1);
+        assertEquals(1, availabilityService.takenHours(1, next));
+        assertFalse(availabilityService.isFree(1, day.plusDays(1), 1));
+        // 跨天的订单只算在开始那天
+        assertTrue(availabilityService.findDateOrder(1, day.plusDays(1), day.plusDays(2)).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.demo;
+
+import com.demo.service.impl.IdempotencyServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyServiceTest {
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyService = new IdempotencyServiceImpl();
+        ReflectionTestUtils.setField(idempotencyService, "minutes", 10);
+    }
+
+    @Test
+    public void testRetryReturnsFirstResult() {
+        assertEquals(1, (int) idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet));
+        assertEquals(1, (int) idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet));
+        // 不同用户或不同标识各自执行
+        assertEquals(2, (int) idempotencyService.execute("addOrder:u2", "k1", "a", writes::incrementAndGet));
+        assertEquals(3, (int) idempotencyService.execute("addOrder:u1", "k2", "a", writes::incrementAndGet));
+        // 没有标识时不做检查
+        assertEquals(4, (int) idempotencyService.execute("addOrder:u1", null, "a", writes::incrementAndGet));
+        assertEquals(5, (int) idempotencyService.execute("addOrder:u1", "", "a", writes::incrementAndGet));
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("addOrder:u1", new String(new char[65]), "a", writes::incrementAndGet));
+    }
+
+    @Test
+    public void testFailureIsNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("addOrder:u1", "k1", "a", () -> {
+            throw new IllegalStateException("该时段已被预订");
+        }));
+        assertEquals(1, (int) idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet));
+    }
+
+    @Test
+    public void testKeyReusedForOtherContent() {
+        assertEquals(1, (int) idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet));
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("addOrder:u1", "k1", "b", writes::incrementAndGet));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testExpire() {
+        ReflectionTestUtils.setField(idempotencyService, "minutes", 0);
+        idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet);
+        idempotencyService.purge();
+        assertEquals(2, (int) idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet));
+    }
+
+    @Test
+    public void testConcurrentDuplicateWaits() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> idempotencyService.execute("addOrder:u1", "k1", "a", () -> {
+                started.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return writes.incrementAndGet();
+            }));
+            started.await();
+            Future<Integer> second = executor.submit(() -> idempotencyService.execute("addOrder:u1", "k1", "a", writes::incrementAndGet));
+            finish.countDown();
+            assertEquals(1, (int) first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, (int) second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, writes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
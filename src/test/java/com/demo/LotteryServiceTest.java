@@ -0,0 +1,169 @@
+package com.demo;
+
+import com.demo.dao.LotteryBidDao;
+import com.demo.dao.LotteryDao;
+import com.demo.dao.VenueDao;
+import com.demo.entity.Lottery;
+import com.demo.entity.LotteryBid;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.exception.StateConflictException;
+import com.demo.service.LotteryService;
+import com.demo.service.OrderService;
+import com.demo.service.SlotLedgerService;
+import com.demo.service.impl.LotteryServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class LotteryServiceTest {
+
+    @Mock
+    private LotteryDao lotteryDao;
+
+    @Mock
+    private LotteryBidDao lotteryBidDao;
+
+    @Mock
+    private VenueDao venueDao;
+
+    @Mock
+    private SlotLedgerService slotLedgerService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private LotteryServiceImpl lotteryService;
+
+    private final LocalDateTime from = LocalDateTime.now().plusDays(7).withHour(18).withMinute(0).withSecond(0).withNano(0);
+
+    private Lottery lottery;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        lottery = new Lottery(1, 1, from, from.plusHours(3), from.minusDays(1), LotteryService.STATE_OPEN, 42L, null);
+        when(lotteryDao.findForUpdate(1)).thenReturn(lottery);
+        when(lotteryDao.findAllByState(LotteryService.STATE_OPEN)).thenReturn(new ArrayList<>(Collections.singletonList(lottery)));
+        when(venueDao.findByVenueID(1)).thenReturn(new Venue(1, "A", "", 100, "", "", "08:00", "22:00"));
+        // 20点已被直接预约占用
+        when(slotLedgerService.findUsed(1, from, from.plusHours(3)))
+                .thenAnswer(invocation -> new HashMap<>(Collections.singletonMap(from.plusHours(2), 1)));
+        lotteryService.load();
+    }
+
+    @Test
+    public void testDraw() {
+        List<LotteryBid> bids = new ArrayList<>();
+        for (String user : Arrays.asList("u1", "u2", "u3", "u4")) {
+            bids.add(new LotteryBid(0, 1, user, 1, from, 1, null, null));
+            bids.add(new LotteryBid(0, 1, user, 2, from.plusHours(1), 1, null, null));
+            bids.add(new LotteryBid(0, 1, user, 3, from.plusHours(2), 1, null, null));
+        }
+        when(lotteryBidDao.findAllByLotteryIDOrderByUserIDAscChoiceAsc(1)).thenReturn(bids);
+
+        assertEquals(2, lotteryService.draw(1));
+
+        ArgumentCaptor<List<Order>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderService, times(1)).submitAllocated(captor.capture());
+        List<Order> orders = captor.getValue();
+        // 18点和19点各分给一个不同的用户, 已被占用的20点不分配
+        assertEquals(from, orders.get(0).getStartTime());
+        assertEquals(from.plusHours(1), orders.get(1).getStartTime());
+        assertNotEquals(orders.get(0).getUserID(), orders.get(1).getUserID());
+        assertEquals(100, orders.get(1).getTotal());
+        assertEquals(LotteryService.STATE_DRAWN, lottery.getState());
+        assertFalse(lotteryService.isReserved(1, from, 1));
+
+        assertThrows(StateConflictException.class, () -> lotteryService.draw(1));
+    }
+
+    @Test
+    public void testDrawDueSkipsFailedLottery() {
+        // 抽签2的场馆已被删除, 开奖失败后仍继续开抽签1, 并刷新开放列表
+        when(lotteryDao.findIDByStateAndCloseTimeBefore(anyInt(), any(LocalDateTime.class))).thenReturn(Arrays.asList(2, 1));
+        when(lotteryDao.findForUpdate(2)).thenReturn(new Lottery(2, 9, from, from.plusHours(3), from.minusDays(1),
+                LotteryService.STATE_OPEN, 7L, null));
+        when(lotteryBidDao.findAllByLotteryIDOrderByUserIDAscChoiceAsc(1)).thenReturn(
+                Collections.singletonList(new LotteryBid(0, 1, "u1", 1, from, 1, null, null)));
+
+        lotteryService.drawDue();
+
+        verify(orderService).submitAllocated(anyList());
+        assertNotEquals(LotteryService.STATE_OPEN, lottery.getState());
+        verify(lotteryDao, times(2)).findAllByState(LotteryService.STATE_OPEN);
+    }
+
+    @Test
+    public void testDrawIsReproducible() {
+        List<LotteryBid> bids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bids.add(new LotteryBid(0, 1, "u" + i, 1, from, 1, null, null));
+        }
+        when(lotteryBidDao.findAllByLotteryIDOrderByUserIDAscChoiceAsc(1)).thenReturn(bids);
+        Set<String> winners = new HashSet<>();
+        doAnswer(invocation -> {
+            winners.add(invocation.<List<Order>>getArgument(0).get(0).getUserID());
+            return null;
+        }).when(orderService).submitAllocated(anyList());
+
+        lotteryService.draw(1);
+        lottery.setState(LotteryService.STATE_OPEN);
+        lotteryService.draw(1);
+
+        // 种子相同, 两次开奖结果一致
+        assertEquals(1, winners.size());
+    }
+
+    @Test
+    public void testDrawWithCapacity() {
+        when(venueDao.findByVenueID(1)).thenReturn(new Venue(1, "A", "", 100, "", "", "08:00", "22:00", 2));
+        List<LotteryBid> bids = new ArrayList<>();
+        for (String user : Arrays.asList("u1", "u2", "u3", "u4")) {
+            bids.add(new LotteryBid(0, 1, user, 1, from.plusHours(2), 1, null, null));
+        }
+        when(lotteryBidDao.findAllByLotteryIDOrderByUserIDAscChoiceAsc(1)).thenReturn(bids);
+
+        // 两块场地中20点已占用一块, 只剩一个名额
+        assertEquals(1, lotteryService.draw(1));
+    }
+
+    @Test
+    public void testReservedAndBid() {
+        assertTrue(lotteryService.isReserved(1, from.plusHours(2), 2));
+        assertFalse(lotteryService.isReserved(1, from.plusHours(3), 1));
+        assertFalse(lotteryService.isReserved(2, from, 1));
+
+        when(lotteryDao.findByLotteryID(1)).thenReturn(lottery);
+        lottery.setCloseTime(LocalDateTime.now().plusHours(1));
+        when(lotteryBidDao.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<LotteryBid> saved = lotteryService.bid(1, "u1", Arrays.asList(from.plusHours(1), from), 1);
+        assertEquals(2, saved.get(1).getChoice());
+        verify(lotteryBidDao).deleteByLotteryIDAndUserID(1, "u1");
+        assertThrows(RuntimeException.class, () -> lotteryService.bid(1, "u1", Collections.singletonList(from.plusHours(3)), 1));
+        assertThrows(RuntimeException.class, () -> lotteryService.bid(1, "u1", Arrays.asList(from, from), 1));
+    }
+}
@@ -3,10 +3,14 @@ package com.demo;
 import com.demo.controller.user.NewsController;
 import com.demo.entity.News;
 import com.demo.service.NewsService;
+import com.demo.utils.PageCursor;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -144,5 +148,36 @@ public class NewsControllerTest {
                 .andExpect(view().name("news_list"));
     }
 
-    
+    @Test
+    public void testNewsListSeek() throws Exception {
+        // 多查一条用来判断是否还有下一页
+        LocalDateTime time = LocalDateTime.of(2023, 6, 1, 12, 0);
+        List<News> newsList = Arrays.asList(
+            new News(6, "Title 6", "Content 6", time),
+            new News(5, "Title 5", "Content 5", time),
+            new News(4, "Title 4", "Content 4", time),
+            new News(3, "Title 3", "Content 3", time),
+            new News(2, "Title 2", "Content 2", time),
+            new News(1, "Title 1", "Content 1", time)
+        );
+        when(newsService.findSeek(any(LocalDateTime.class), eq(Integer.MAX_VALUE), eq(6))).thenReturn(newsList);
+
+        mockMvc.perform(get("/news/getNewsListSeek"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.next").value(PageCursor.encode(time, 2)));
+    }
+
+    @Test
+    public void testNewsListSeek_LastPage() throws Exception {
+        LocalDateTime time = LocalDateTime.of(2023, 6, 1, 12, 0);
+        List<News> newsList = Arrays.asList(new News(1, "Title 1", "Content 1", time));
+        when(newsService.findSeek(time, 2, 6)).thenReturn(newsList);
+
+        mockMvc.perform(get("/news/getNewsListSeek")
+                .param("cursor", PageCursor.encode(time, 2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
 }
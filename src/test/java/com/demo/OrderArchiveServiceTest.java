@@ -0,0 +1,54 @@
+package com.demo;
+
+import com.demo.service.OrderService;
+import com.demo.service.impl.OrderArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class OrderArchiveServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private OrderArchiveServiceImpl orderArchiveService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(orderArchiveService, "horizonDays", 180);
+        ReflectionTestUtils.setField(orderArchiveService, "batchSize", 2);
+        ReflectionTestUtils.setField(orderArchiveService, "pauseMillis", 0L);
+    }
+
+    @Test
+    public void testArchiveInBatches() {
+        // 两批满批, 第三批不足一批时结束
+        when(orderService.archiveOrders(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        assertEquals(5, orderArchiveService.archive());
+
+        ArgumentCaptor<LocalDateTime> captor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderService, times(3)).archiveOrders(captor.capture(), eq(2));
+        assertEquals(LocalDate.now().minusDays(180).atStartOfDay(), captor.getValue());
+    }
+
+    @Test
+    public void testNothingToArchive() {
+        assertEquals(0, orderArchiveService.archive());
+        verify(orderService, times(1)).archiveOrders(any(LocalDateTime.class), eq(2));
+    }
+}
@@ -0,0 +1,80 @@
+package com.demo;
+
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.CartItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OrderCartTest extends OrderServiceTestBase {
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2).withHour(12).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    public void setUp() {
+        when(venueDao.findByVenueNameIn(anyCollection())).thenReturn(Arrays.asList(
+                new Venue(1, "A", "", 100, "", "", "08:00", "20:00"),
+                new Venue(2, "B", "", 80, "", "", "08:00", "20:00")));
+        when(availabilityService.isFree(anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(true);
+    }
+
+    @Test
+    public void testSubmitCart() {
+        doAnswer(invocation -> {
+            int id = 100;
+            for (Order order : invocation.<List<Order>>getArgument(0)) {
+                order.setOrderID(id++);
+            }
+            return null;
+        }).when(orderDao).insertAll(anyList());
+
+        List<Order> orders = orderService.submitCart(Arrays.asList(
+                new CartItem("A", start, 2),
+                new CartItem("A", start.plusHours(3), 1),
+                new CartItem("B", start, 2)), "u1");
+
+        assertEquals(3, orders.size());
+        assertEquals(200, orders.get(0).getTotal());
+        assertEquals(2, orders.get(2).getVenueID());
+        assertEquals(102, orders.get(2).getOrderID());
+        verify(orderDao, times(1)).insertAll(anyList());
+        verify(orderDao, never()).save(any(Order.class));
+        verify(slotLedgerService).occupyAll(orders);
+        verify(availabilityService, times(3)).book(any(Order.class));
+        verify(rowCountService).add("order:user:u1", 3);
+        verify(quotaService).acquire(orders);
+    }
+
+    @Test
+    public void testSubmitCartOverQuota() {
+        doThrow(new RuntimeException("每周最多预约7次")).when(quotaService).acquire(anyList());
+
+        assertThrows(RuntimeException.class, () -> orderService.submitCart(Arrays.asList(
+                new CartItem("A", start, 2),
+                new CartItem("B", start, 2)), "u1"));
+        verify(orderDao, never()).insertAll(anyList());
+        verify(availabilityService, never()).book(any(Order.class));
+    }
+
+    @Test
+    public void testSubmitCartRejectsWhole() {
+        // 购物车内部重叠
+        assertThrows(RuntimeException.class, () -> orderService.submitCart(Arrays.asList(
+                new CartItem("A", start, 2),
+                new CartItem("A", start.plusHours(1), 2)), "u1"));
+        // 任一场馆不存在
+        assertThrows(RuntimeException.class, () -> orderService.submitCart(Arrays.asList(
+                new CartItem("A", start, 2),
+                new CartItem("C", start, 2)), "u1"));
+        verify(orderDao, never()).insertAll(anyList());
+        verify(slotLedgerService, never()).occupyAll(anyList());
+    }
+}
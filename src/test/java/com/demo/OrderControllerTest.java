@@ -10,11 +10,20 @@ import com.demo.dao.VenueDao;
 import com.demo.entity.Order;
 import com.demo.entity.User;
 import com.demo.entity.Venue;
+import com.demo.entity.vo.CartItem;
+import com.demo.entity.vo.SlotAlternative;
+import com.demo.entity.vo.SlotHold;
+import com.demo.entity.vo.VenueCalendar;
 import com.demo.entity.vo.OrderVo;
 import com.demo.exception.LoginException;
+import com.demo.exception.SlotConflictException;
+import com.demo.service.AdmissionService;
+import com.demo.service.IdempotencyService;
 import com.demo.service.OrderService;
 import com.demo.service.OrderVoService;
+import com.demo.service.SlotHoldService;
 import com.demo.service.VenueService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -25,9 +34,12 @@ import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 @WebMvcTest(OrderController.class)
 public class OrderControllerTest {
@@ -47,6 +59,20 @@ public class OrderControllerTest {
     @MockBean
     private VenueDao venueDao;
 
+    @MockBean
+    private SlotHoldService slotHoldService;
+
+    @MockBean
+    private AdmissionService admissionService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    public void setUp() {
+        when(idempotencyService.execute(anyString(), any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+    }
+
     @Test
     public void testOrderManage() throws Exception {
         // 模拟 HttpSession 中存储的用户对象
@@ -156,6 +182,42 @@ public class OrderControllerTest {
                 .andExpect(redirectedUrl("order_manage"));
     }
 
+    @Test
+    public void testAddOrderConflict() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        User user = new User();
+        user.setUserID("123");
+        session.setAttribute("user", user);
+
+        // 模拟时段已被其他订单占用
+        doThrow(new SlotConflictException("该时段已被预订")).when(orderService)
+                .submit(anyString(), any(LocalDateTime.class), anyInt(), anyString());
+
+        mockMvc.perform(post("/addOrder.do")
+                        .param("venueName", "VenueName")
+                        .param("date", "2024-04-16")
+                        .param("startTime", "2024-04-16 12:00")
+                        .param("hours", "2")
+                        .session(session))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("该时段已被预订"));
+    }
+
+    @Test
+    public void testOrderListSeekWithBadCursor() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        User user = new User();
+        user.setUserID("123");
+        session.setAttribute("user", user);
+
+        mockMvc.perform(get("/getOrderListSeek.do")
+                        .param("cursor", "!!not-a-cursor!!")
+                        .session(session))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("无效的分页游标"));
+        verify(orderService, never()).findUserOrderSeek(anyString(), any(), anyInt(), anyInt());
+    }
+
     @Test
     public void testAddOrderWithErrorInput() throws Exception {
         MockHttpSession session = new MockHttpSession();
@@ -301,4 +363,142 @@ public class OrderControllerTest {
                 .param("venueName", venueName)
                 .param("date", date)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetCalendar() throws Exception {
+        Venue mockVenue = new Venue();
+        mockVenue.setVenueID(1);
+        mockVenue.setVenueName("Mock Venue");
+        when(venueService.findByVenueName("Mock Venue")).thenReturn(mockVenue);
+
+        LocalDate from = LocalDate.of(2024, 4, 16);
+        int[] taken = new int[7];
+        taken[0] = 0b11 << 10;
+        int[] held = new int[7];
+        held[1] = 1 << 15;
+        VenueCalendar calendar = new VenueCalendar(1, "Mock Venue", "08:00", "20:00", from, 0xFFF00, taken, held);
+        when(orderService.findCalendar(mockVenue, from, 7, null)).thenReturn(calendar);
+
+        mockMvc.perform(get("/order/getCalendar.do")
+                        .param("venueName", "Mock Venue")
+                        .param("from", "2024-04-16"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("2024-04-16"))
+                .andExpect(jsonPath("$.openMask").value(0xFFF00))
+                .andExpect(jsonPath("$.taken.length()").value(7))
+                .andExpect(jsonPath("$.taken[0]").value(3072))
+                .andExpect(jsonPath("$.held[1]").value(32768));
+    }
+
+    @Test
+    public void testHoldAndSubmit() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        User user = new User();
+        user.setUserID("123");
+        session.setAttribute("user", user);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        when(venueService.findByVenueName("VenueName")).thenReturn(venue);
+        LocalDateTime start = LocalDateTime.of(2024, 4, 16, 12, 0);
+        when(slotHoldService.hold("123", 1, start, 2))
+                .thenReturn(new SlotHold("h1", "123", 1, start, 2, start.minusHours(1)));
+
+        mockMvc.perform(post("/order/hold.do")
+                        .param("venueName", "VenueName")
+                        .param("startTime", "2024-04-16 12:00")
+                        .param("hours", "2")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.holdID").value("h1"));
+
+        // 带预留号下单时直接转换预留
+        mockMvc.perform(post("/addOrder.do")
+                        .param("venueName", "VenueName")
+                        .param("startTime", "2024-04-16 12:00")
+                        .param("hours", "2")
+                        .param("holdID", "h1")
+                        .session(session))
+                .andExpect(status().is3xxRedirection());
+        verify(orderService).submitHold("h1", "123");
+        verify(orderService, never()).submit(anyString(), any(LocalDateTime.class), anyInt(), anyString());
+    }
+
+    @Test
+    public void testAddOrderConflictWithAlternatives() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        User user = new User();
+        user.setUserID("123");
+        session.setAttribute("user", user);
+
+        List<SlotAlternative> alternatives = new ArrayList<>();
+        alternatives.add(new SlotAlternative(1, "VenueName", LocalDateTime.of(2024, 4, 16, 14, 0), 2, 200));
+        alternatives.add(new SlotAlternative(2, "Other", LocalDateTime.of(2024, 4, 16, 12, 0), 2, 160));
+        doThrow(new SlotConflictException("该时段已被预订", alternatives)).when(orderService)
+                .submit(anyString(), any(LocalDateTime.class), anyInt(), anyString());
+
+        // 表单提交返回文本, 推荐时段逐行列出
+        mockMvc.perform(post("/addOrder.do")
+                        .param("venueName", "VenueName")
+                        .param("date", "2024-04-16")
+                        .param("startTime", "2024-04-16 12:00")
+                        .param("hours", "2")
+                        .session(session))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("该时段已被预订\n可选时段:\nVenueName 2024-04-16 14:00 2小时 ￥200\nOther 2024-04-16 12:00 2小时 ￥160"));
+
+        // 接受JSON时返回结构化的推荐时段
+        mockMvc.perform(post("/addOrder.do")
+                        .param("venueName", "VenueName")
+                        .param("date", "2024-04-16")
+                        .param("startTime", "2024-04-16 12:00")
+                        .param("hours", "2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .session(session))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("该时段已被预订"))
+                .andExpect(jsonPath("$.alternatives.length()").value(2))
+                .andExpect(jsonPath("$.alternatives[1].venueID").value(2));
+    }
+
+    @Test
+    public void testCheckout() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        User user = new User();
+        user.setUserID("123");
+        session.setAttribute("user", user);
+        Order first = new Order();
+        first.setOrderID(41);
+        Order second = new Order();
+        second.setOrderID(42);
+        when(orderService.submitCart(anyList(), eq("123"))).thenReturn(Arrays.asList(first, second));
+
+        mockMvc.perform(post("/order/checkout.do")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"venueName\":\"A\",\"startTime\":\"2024-04-16 12:00\",\"hours\":2}," +
+                                "{\"venueName\":\"B\",\"startTime\":\"2024-04-16 18:00\",\"hours\":1}]")
+                        .session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1]").value(42));
+        verify(orderService).submitCart(Arrays.asList(
+                new CartItem("A", LocalDateTime.of(2024, 4, 16, 12, 0), 2),
+                new CartItem("B", LocalDateTime.of(2024, 4, 16, 18, 0), 1)), "123");
+    }
+
+    @Test
+    public void testAddOrderQueuedWhenOpening() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        User user = new User();
+        user.setUserID("123");
+        session.setAttribute("user", user);
+        when(admissionService.isOpen()).thenReturn(true);
+
+        mockMvc.perform(post("/addOrder.do")
+                        .param("venueName", "VenueName")
+                        .param("startTime", "2024-04-16 12:00")
+                        .param("hours", "2")
+                        .session(session))
+                .andExpect(status().is3xxRedirection());
+        verify(admissionService).enqueue("123", "VenueName", LocalDateTime.of(2024, 4, 16, 12, 0), 2);
+        verify(orderService, never()).submit(anyString(), any(LocalDateTime.class), anyInt(), anyString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.demo;
+
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.OrderVo;
+import com.demo.service.impl.OrderVoServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OrderHistoryTest extends OrderServiceTestBase {
+
+    private final LocalDateTime start = LocalDateTime.now().minusDays(200).withHour(12).withMinute(0).withSecond(0).withNano(0);
+
+    @InjectMocks
+    private OrderVoServiceImpl orderVoService;
+
+    @Test
+    public void testUserOrderCountsHistory() {
+        Pageable pageable = PageRequest.of(0, 5);
+        Slice<Order> slice = new SliceImpl<>(Collections.singletonList(new Order(1, "u1", 1, 3, start, start, 1, 100, null)), pageable, false);
+        when(orderDao.findAllWithHistoryByUserID("u1", pageable)).thenReturn(slice);
+        when(orderDao.countByUserID("u1")).thenReturn(2L);
+        when(orderDao.countArchivedByUserID("u1")).thenReturn(3L);
+
+        orderService.findUserOrder("u1", pageable);
+
+        ArgumentCaptor<LongSupplier> loader = ArgumentCaptor.forClass(LongSupplier.class);
+        verify(rowCountService).page(eq(slice), eq(pageable), eq("order:user:u1"), loader.capture());
+        assertEquals(5, loader.getValue().getAsLong());
+    }
+
+    @Test
+    public void testUserOrderSeekReadsHistory() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = Collections.singletonList(new Order(1, "u1", 1, 3, start, start, 1, 100, null));
+        when(orderDao.findSeekWithHistoryByUserID("u1", now, 10, 6)).thenReturn(orders);
+
+        assertSame(orders, orderService.findUserOrderSeek("u1", now, 10, 6));
+    }
+
+    @Test
+    public void testArchiveKeepsUserCount() {
+        when(orderDao.archive(anyCollection(), any(LocalDateTime.class), eq(10))).thenReturn(Arrays.asList(
+                new Order(1, "u1", 1, 3, start, start, 1, 100, null),
+                new Order(2, "u1", 1, 4, start, start.plusHours(2), 1, 100, null)));
+
+        assertEquals(2, orderService.archiveOrders(start.plusDays(1), 10));
+
+        verify(rowCountService).add("order:state:3", -1);
+        verify(rowCountService).add("order:state:4", -1);
+        verify(rowCountService, never()).add(eq("order:user:u1"), anyInt());
+    }
+
+    @Test
+    public void testOrderVoFallsBackToHistory() {
+        when(orderDao.findArchivedByOrderID(1)).thenReturn(new Order(1, "u1", 1, 3, start, start, 1, 100, null));
+        when(venueDao.findByVenueID(1)).thenReturn(new Venue(1, "A", "", 100, "", "", "08:00", "20:00"));
+
+        OrderVo vo = orderVoService.returnOrderVoByOrderID(1);
+
+        assertEquals("A", vo.getVenueName());
+        assertEquals(3, vo.getState());
+        assertThrows(RuntimeException.class, () -> orderVoService.returnOrderVoByOrderID(2));
+    }
+}
@@ -0,0 +1,153 @@
+package com.demo;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.service.OrderService;
+import com.demo.service.impl.OrderJournalServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrderJournalServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 4, 16, 18, 0);
+
+    private final OrderDao orderDao = mock(OrderDao.class);
+
+    private OrderJournalServiceImpl open(int segmentKb) {
+        OrderJournalServiceImpl journal = new OrderJournalServiceImpl();
+        ReflectionTestUtils.setField(journal, "orderDao", orderDao);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "dir", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentKb", segmentKb);
+        journal.open();
+        return journal;
+    }
+
+    private Order order(int orderID, String userID, int state, LocalDateTime startTime) {
+        return new Order(orderID, userID, 1, state, start.minusDays(1), startTime, 2, 200, orderID % 2 == 0 ? "s1" : null);
+    }
+
+    /**
+     * 订单表当前的最大订单号和有效订单数
+     */
+    private void database(long maxOrderID, long noAudit, long wait) {
+        when(orderDao.findMaxOrderID()).thenReturn(maxOrderID);
+        when(orderDao.countByState(OrderService.STATE_NO_AUDIT)).thenReturn(noAudit);
+        when(orderDao.countByState(OrderService.STATE_WAIT)).thenReturn(wait);
+    }
+
+    private List<Order> sorted(Collection<Order> orders) {
+        return orders.stream().sorted(Comparator.comparingInt(Order::getOrderID)).collect(Collectors.toList());
+    }
+
+    private OrderJournalServiceImpl record() {
+        OrderJournalServiceImpl journal = open(1024);
+        assertFalse(journal.isRecovered());
+        journal.reset(Arrays.asList(order(1, "u1", OrderService.STATE_NO_AUDIT, start),
+                order(2, "u2", OrderService.STATE_WAIT, start)));
+        journal.booked(order(3, "u3", OrderService.STATE_NO_AUDIT, start.plusHours(2)));
+        journal.changed(Collections.singletonList(1), OrderService.STATE_WAIT);
+        // 定时快照之后的修改只在日志尾部
+        journal.snapshot();
+        journal.changed(Arrays.asList(2, 99), OrderService.STATE_FINISH);
+        journal.booked(order(3, "u3", OrderService.STATE_NO_AUDIT, start.plusDays(1)));
+        journal.deleted(4);
+        return journal;
+    }
+
+    @Test
+    public void testReplayAfterCrash() {
+        database(4, 1, 1);
+        record();
+
+        // 不调用close, 相当于进程直接退出, 新实例从快照和日志尾部恢复
+        OrderJournalServiceImpl second = open(1024);
+        assertTrue(second.isRecovered());
+        assertEquals(Arrays.asList(order(1, "u1", OrderService.STATE_WAIT, start),
+                order(3, "u3", OrderService.STATE_NO_AUDIT, start.plusDays(1))), sorted(second.recovered()));
+    }
+
+    @Test
+    public void testRecoverAfterClose() {
+        database(4, 1, 1);
+        record().close();
+
+        OrderJournalServiceImpl second = open(1024);
+        assertTrue(second.isRecovered());
+        assertEquals(Arrays.asList(order(1, "u1", OrderService.STATE_WAIT, start),
+                order(3, "u3", OrderService.STATE_NO_AUDIT, start.plusDays(1))), sorted(second.recovered()));
+    }
+
+    @Test
+    public void testNewerOrdersReadFromDatabase() {
+        database(4, 2, 1);
+        record();
+
+        // 订单5已提交但进程在追加日志前退出
+        when(orderDao.findAllByOrderIDGreaterThan(4)).thenReturn(Collections.singletonList(
+                order(5, "u5", OrderService.STATE_NO_AUDIT, start.plusHours(5))));
+        OrderJournalServiceImpl second = open(1024);
+        assertTrue(second.isRecovered());
+        assertEquals(Arrays.asList(order(1, "u1", OrderService.STATE_WAIT, start),
+                order(3, "u3", OrderService.STATE_NO_AUDIT, start.plusDays(1)),
+                order(5, "u5", OrderService.STATE_NO_AUDIT, start.plusHours(5))), sorted(second.recovered()));
+    }
+
+    @Test
+    public void testLostChangeFallsBackToDatabase() {
+        database(4, 1, 1);
+        record();
+
+        // 订单3的审核已提交但没进日志, 有效订单数对不上
+        database(4, 0, 2);
+        OrderJournalServiceImpl second = open(1024);
+        assertFalse(second.isRecovered());
+        assertTrue(second.recovered().isEmpty());
+    }
+
+    @Test
+    public void testRotateWhenSegmentIsFull() {
+        database(0, 100, 0);
+        OrderJournalServiceImpl first = open(1);
+        first.reset(Collections.emptyList());
+        for (int i = 1; i <= 200; i++) {
+            first.booked(order(i, "u" + i, OrderService.STATE_NO_AUDIT, start.plusHours(i)));
+            if (i % 2 == 0) {
+                first.changed(Collections.singletonList(i - 1), OrderService.STATE_REJECT);
+            }
+        }
+        first.close();
+
+        OrderJournalServiceImpl second = open(1);
+        List<Order> orders = sorted(second.recovered());
+        assertEquals(100, orders.size());
+        assertEquals(order(200, "u200", OrderService.STATE_NO_AUDIT, start.plusHours(200)), orders.get(99));
+    }
+
+    @Test
+    public void testDisabled() {
+        OrderJournalServiceImpl journal = open(1024);
+        ReflectionTestUtils.setField(journal, "enabled", false);
+        journal.reset(Collections.singletonList(order(1, "u1", OrderService.STATE_NO_AUDIT, start)));
+        journal.booked(order(2, "u2", OrderService.STATE_NO_AUDIT, start));
+        assertFalse(journal.isRecovered());
+        assertTrue(journal.recovered().isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.demo;
+
+import com.demo.dao.OrderRollupDao;
+import com.demo.entity.Order;
+import com.demo.entity.vo.VenueRollup;
+import com.demo.service.impl.OrderRollupServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class OrderRollupServiceTest {
+
+    @Mock
+    private OrderRollupDao orderRollupDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderRollupServiceImpl orderRollupService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(orderRollupService, "rebuildThreads", 2);
+        ReflectionTestUtils.setField(orderRollupService, "rebuildChunk", 2);
+    }
+
+    @Test
+    public void testAddUsesOrderDay() {
+        Order order = new Order(1, "user", 3, 1, LocalDateTime.now(), LocalDateTime.of(2024, 4, 16, 10, 0), 2, 200, null);
+        orderRollupService.add(order, -1);
+        verify(orderRollupDao).add(3, LocalDate.of(2024, 4, 16), 1, -1, -2, -200L);
+    }
+
+    @Test
+    public void testMove() {
+        List<Integer> ids = Arrays.asList(1, 2);
+        orderRollupService.move(ids, 1, 2);
+        verify(orderRollupDao).addOrders(ids, 1, -1);
+        verify(orderRollupDao).addOrders(ids, 2, 1);
+
+        // 没有订单或状态未变时不写汇总
+        orderRollupService.move(Collections.emptyList(), 1, 2);
+        orderRollupService.move(ids, 2, 2);
+        verifyNoMoreInteractions(orderRollupDao);
+    }
+
+    @Test
+    public void testRebuildInChunks() {
+        when(orderRollupDao.findVenueIDs()).thenReturn(Arrays.asList(1, 2, 3, 4, 5));
+        assertEquals(5, orderRollupService.rebuild());
+        // 5个场馆按每块2个分成3块, 每块先删后插
+        verify(orderRollupDao, times(3)).deleteByVenueIDIn(anyCollection());
+        verify(orderRollupDao, times(3)).rebuildVenues(anyCollection());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    public void testFindDaily() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1, "2024-04-16", BigDecimal.valueOf(3), BigDecimal.valueOf(5), BigDecimal.valueOf(500)});
+        rows.add(new Object[]{2, "2024-04-16", BigInteger.ONE, BigInteger.ONE, BigInteger.TEN});
+        LocalDate day = LocalDate.of(2024, 4, 16);
+        when(orderRollupDao.sumByDay(0, day, day, Arrays.asList(2, 3))).thenReturn(rows);
+
+        List<VenueRollup> rollups = orderRollupService.findDaily(0, day, day, Arrays.asList(2, 3));
+        assertEquals(2, rollups.size());
+        assertEquals(new VenueRollup(1, "2024-04-16", 3, 5, 500), rollups.get(0));
+        assertEquals(10, rollups.get(1).getRevenue());
+    }
+}
@@ -0,0 +1,94 @@
+package com.demo;
+
+import com.demo.entity.Venue;
+import com.demo.entity.vo.SeriesResult;
+import com.demo.exception.SlotConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OrderSeriesTest extends OrderServiceTestBase {
+
+    private final LocalDate monday = LocalDate.now().plusWeeks(1).with(DayOfWeek.MONDAY);
+
+    @BeforeEach
+    public void setUp() {
+        when(venueDao.findByVenueName("A")).thenReturn(new Venue(1, "A", "", 100, "", "", "08:00", "20:00"));
+    }
+
+    @Test
+    public void testSubmitSeries() {
+        // 第二周的周二19点已被占用
+        when(slotLedgerService.findTaken(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(new HashSet<>(Collections.singletonList(monday.plusDays(8).atTime(19, 0))));
+
+        SeriesResult result = orderService.submitSeries("A", DayOfWeek.TUESDAY, LocalTime.of(18, 0), 2,
+                monday, monday.plusWeeks(3).plusDays(6), "u1");
+
+        assertEquals(Collections.singletonList(monday.plusDays(8)), result.getConflicts());
+        assertEquals(3, result.getOrderIDs().size());
+        verify(slotLedgerService, times(1)).findTaken(1, monday.plusDays(1).atTime(18, 0), monday.plusWeeks(4).atStartOfDay());
+        verify(orderDao).insertAll(argThat(orders -> orders.size() == 3
+                && orders.stream().allMatch(o -> result.getSeriesID().equals(o.getSeriesID())
+                && o.getStartTime().getDayOfWeek() == DayOfWeek.TUESDAY && o.getTotal() == 200)));
+        verify(rowCountService).add("order:user:u1", 3);
+    }
+
+    @Test
+    public void testSubmitSeriesInvalid() {
+        when(slotLedgerService.findTaken(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(new HashSet<>(Collections.singletonList(monday.atTime(9, 0))));
+
+        assertThrows(SlotConflictException.class, () -> orderService.submitSeries("A", DayOfWeek.MONDAY,
+                LocalTime.of(8, 0), 2, monday, monday.plusDays(6), "u1"));
+        assertThrows(RuntimeException.class, () -> orderService.submitSeries("A", DayOfWeek.MONDAY,
+                LocalTime.of(8, 0), 2, monday, monday.plusWeeks(30), "u1"));
+        verify(orderDao, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void testRejectSeries() {
+        List<Integer> ids = Arrays.asList(7, 8);
+        when(orderDao.findIDBySeriesID("s1")).thenReturn(ids);
+        when(orderDao.findStates(ids)).thenReturn(Arrays.asList(new Object[]{7, 1}, new Object[]{8, 3}));
+        when(orderDao.updateStatesFrom(4, Collections.singletonList(7), Collections.singletonList(1))).thenReturn(1);
+
+        Map<Integer, String> result = orderService.rejectSeries("s1");
+
+        assertEquals("ok", result.get(7));
+        assertEquals("conflict", result.get(8));
+        verify(orderDao).updateStatesFrom(4, Collections.singletonList(7), Collections.singletonList(1));
+        verify(orderRollupService).move(Collections.singletonList(7), 1, 4);
+        verify(slotLedgerService).releaseAll(Collections.singletonList(7));
+    }
+
+    @Test
+    public void testRejectSeriesChangedConcurrently() {
+        List<Integer> ids = Arrays.asList(7, 8);
+        when(orderDao.findIDBySeriesID("s1")).thenReturn(ids);
+        // 读状态之后订单8被其他人完成, UPDATE只命中订单7
+        when(orderDao.updateStatesFrom(4, ids, Collections.singletonList(1))).thenReturn(1);
+        when(orderDao.findStates(ids)).thenReturn(Arrays.asList(new Object[]{7, 1}, new Object[]{8, 1}),
+                Arrays.asList(new Object[]{7, 4}, new Object[]{8, 3}));
+
+        Map<Integer, String> result = orderService.rejectSeries("s1");
+
+        assertEquals("ok", result.get(7));
+        assertEquals("conflict", result.get(8));
+        verify(orderRollupService).move(Collections.singletonList(7), 1, 4);
+        verify(slotLedgerService).releaseAll(Collections.singletonList(7));
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo;
+
+import com.demo.dao.OrderDao;
+import com.demo.dao.VenueDao;
+import com.demo.service.AvailabilityService;
+import com.demo.service.LotteryService;
+import com.demo.service.OrderJournalService;
+import com.demo.service.OrderRollupService;
+import com.demo.service.QuotaService;
+import com.demo.service.RowCountService;
+import com.demo.service.SlotHoldService;
+import com.demo.service.SlotLedgerService;
+import com.demo.service.SlotSuggestionService;
+import com.demo.service.WaitlistService;
+import com.demo.service.impl.OrderServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * OrderServiceImpl单元测试共用的依赖mock, 新增依赖时只需在这里补充
+ */
+public abstract class OrderServiceTestBase {
+
+    @Mock
+    protected OrderDao orderDao;
+
+    @Mock
+    protected VenueDao venueDao;
+
+    @Mock
+    protected AvailabilityService availabilityService;
+
+    @Mock
+    protected SlotLedgerService slotLedgerService;
+
+    @Mock
+    protected RowCountService rowCountService;
+
+    @Mock
+    protected OrderRollupService orderRollupService;
+
+    @Mock
+    protected SlotSuggestionService slotSuggestionService;
+
+    @Mock
+    protected SlotHoldService slotHoldService;
+
+    @Mock
+    protected WaitlistService waitlistService;
+
+    @Mock
+    protected LotteryService lotteryService;
+
+    @Mock
+    protected QuotaService quotaService;
+
+    @Mock
+    protected OrderJournalService orderJournalService;
+
+    @Mock
+    protected PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    protected OrderServiceImpl orderService;
+
+    @BeforeEach
+    public void initMocks() {
+        MockitoAnnotations.initMocks(this);
+    }
+}
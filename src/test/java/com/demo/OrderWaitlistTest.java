@@ -0,0 +1,46 @@
+package com.demo;
+
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.WaitlistEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OrderWaitlistTest extends OrderServiceTestBase {
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2).withHour(18).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    public void setUp() {
+        when(venueDao.findByVenueID(1)).thenReturn(new Venue(1, "A", "", 100, "", "", "08:00", "22:00"));
+    }
+
+    @Test
+    public void testRejectPromotesFirstEligible() {
+        Order freed = new Order(7, "u0", 1, 1, LocalDateTime.now(), start, 2, 200, null);
+        when(orderDao.updateStateFrom(eq(4), eq(7), anyList())).thenReturn(1);
+        when(availabilityService.release(7)).thenReturn(freed);
+        WaitlistEntry blocked = new WaitlistEntry(1, "u1", 1, start.plusHours(1), 2, LocalDateTime.now());
+        WaitlistEntry eligible = new WaitlistEntry(2, "u2", 1, start, 1, LocalDateTime.now());
+        WaitlistEntry later = new WaitlistEntry(3, "u3", 1, start, 2, LocalDateTime.now());
+        when(waitlistService.candidates(1, start, 2)).thenReturn(Arrays.asList(blocked, eligible, later));
+        // 第一位等待的时段还有一个小时被占用, 第二位转为订单后第三位的时段不再空闲
+        when(availabilityService.isFree(1, start.plusHours(1), 2)).thenReturn(false);
+        when(availabilityService.isFree(1, start, 1)).thenReturn(true);
+        when(availabilityService.isFree(1, start, 2)).thenReturn(false);
+
+        orderService.rejectOrder(7);
+
+        verify(orderDao).save(argThat(order -> "u2".equals(order.getUserID()) && order.getStartTime().equals(start)
+                && order.getHours() == 1 && order.getState() == 1));
+        verify(waitlistService).promoted(eligible);
+        verify(waitlistService, never()).promoted(blocked);
+        verify(waitlistService, never()).promoted(later);
+    }
+}
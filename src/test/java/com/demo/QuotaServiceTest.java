@@ -0,0 +1,109 @@
+package com.demo;
+
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.service.OrderJournalService;
+import com.demo.service.impl.QuotaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+public class QuotaServiceTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @Mock
+    private OrderJournalService orderJournalService;
+
+    @InjectMocks
+    private QuotaServiceImpl quotaService;
+
+    /**
+     * 下周二18点, 同一周内还有周三
+     */
+    private final LocalDateTime tuesday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusDays(1).atTime(18, 0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(quotaService, "perWeek", 3);
+        ReflectionTestUtils.setField(quotaService, "perVenueDay", 2);
+        // 启动时u1在下周二的场馆1已有一个订单
+        when(orderDao.countByUserVenueDay(anyCollection(), any(LocalDateTime.class))).thenReturn(Collections.singletonList(
+                new Object[]{"u1", 1, Date.valueOf(tuesday.toLocalDate()), 1L}));
+        quotaService.load();
+    }
+
+    private Order order(String userID, int venueID, LocalDateTime startTime) {
+        return new Order(0, userID, venueID, 1, LocalDateTime.now(), startTime, 1, 100, null);
+    }
+
+    @Test
+    public void testVenueDayLimit() {
+        quotaService.acquire(Collections.singletonList(order("u1", 1, tuesday.plusHours(1))));
+        assertThrows(RuntimeException.class, () -> quotaService.acquire(Collections.singletonList(order("u1", 1, tuesday.plusHours(2)))));
+        // 其他场馆和其他用户不受影响
+        quotaService.acquire(Collections.singletonList(order("u1", 2, tuesday)));
+        quotaService.acquire(Collections.singletonList(order("u2", 1, tuesday)));
+    }
+
+    @Test
+    public void testWeekLimitAndRelease() {
+        Order second = order("u1", 2, tuesday.plusDays(1));
+        quotaService.acquire(Arrays.asList(second, order("u1", 3, tuesday.plusDays(1))));
+        assertThrows(RuntimeException.class, () -> quotaService.acquire(Collections.singletonList(order("u1", 4, tuesday.plusDays(2)))));
+        // 下一周重新计算
+        quotaService.acquire(Collections.singletonList(order("u1", 4, tuesday.plusWeeks(1))));
+
+        quotaService.add(second, -1);
+        quotaService.acquire(Collections.singletonList(order("u1", 4, tuesday.plusDays(2))));
+    }
+
+    @Test
+    public void testBatchIsAllOrNothing() {
+        assertThrows(RuntimeException.class, () -> quotaService.acquire(Arrays.asList(
+                order("u2", 1, tuesday), order("u1", 1, tuesday.plusHours(1)), order("u1", 1, tuesday.plusHours(2)))));
+        // u2已计入的部分被撤回
+        quotaService.acquire(Arrays.asList(order("u2", 1, tuesday), order("u2", 1, tuesday.plusHours(1))));
+    }
+
+    @Test
+    public void testResyncPicksUpOtherNodes() {
+        // 其他节点又给u1在同一场馆下了一单
+        when(orderDao.countByUserVenueDay(anyCollection(), any(LocalDateTime.class))).thenReturn(Collections.singletonList(
+                new Object[]{"u1", 1, Date.valueOf(tuesday.toLocalDate()), 2L}));
+        quotaService.resync();
+        assertThrows(RuntimeException.class, () -> quotaService.acquire(Collections.singletonList(order("u1", 1, tuesday.plusHours(1)))));
+
+        // 其他节点取消了这两单
+        when(orderDao.countByUserVenueDay(anyCollection(), any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+        quotaService.resync();
+        quotaService.acquire(Arrays.asList(order("u1", 1, tuesday.plusHours(1)), order("u1", 1, tuesday.plusHours(2))));
+    }
+
+    @Test
+    public void testUnlimited() {
+        ReflectionTestUtils.setField(quotaService, "perWeek", 0);
+        ReflectionTestUtils.setField(quotaService, "perVenueDay", 0);
+        for (int i = 0; i < 10; i++) {
+            quotaService.acquire(Collections.singletonList(order("u1", 1, tuesday)));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.demo;
+
+import com.demo.service.impl.RowCountServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowCountServiceTest {
+
+    private final RowCountServiceImpl rowCountService = new RowCountServiceImpl();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(rowCountService, "ttlSeconds", 60L);
+    }
+
+    @Test
+    public void testCountLoadsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(7, rowCountService.count("order:state:1", () -> { loads.incrementAndGet(); return 7; }));
+        assertEquals(7, rowCountService.count("order:state:1", () -> { loads.incrementAndGet(); return 7; }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testAddAdjustsCachedCount() {
+        rowCountService.count("order:state:1", () -> 7);
+        rowCountService.add("order:state:1", 2);
+        rowCountService.add("order:state:1", -1);
+        assertEquals(8, rowCountService.count("order:state:1", () -> 0));
+        // 未缓存的key不会因为add而出现
+        rowCountService.add("order:state:2", 1);
+        assertEquals(5, rowCountService.count("order:state:2", () -> 5));
+    }
+
+    @Test
+    public void testEvictReloads() {
+        rowCountService.count("order:state:1", () -> 7);
+        rowCountService.count("message:state:1", () -> 3);
+        rowCountService.evict("order:");
+        assertEquals(9, rowCountService.count("order:state:1", () -> 9));
+        assertEquals(3, rowCountService.count("message:state:1", () -> 0));
+    }
+
+    @Test
+    public void testExpiredCountReloads() {
+        ReflectionTestUtils.setField(rowCountService, "ttlSeconds", 0L);
+        rowCountService.count("order:state:1", () -> 7);
+        // 其它节点的修改不会通知本节点, 过期后重新查询
+        assertEquals(9, rowCountService.count("order:state:1", () -> 9));
+    }
+
+    @Test
+    public void testPageUsesCachedCount() {
+        rowCountService.count("news", () -> 12);
+        Page<Integer> page = rowCountService.page(new SliceImpl<>(Arrays.asList(1, 2, 3, 4, 5), PageRequest.of(0, 5), true),
+                PageRequest.of(0, 5), "news", () -> { throw new AssertionError("不应查询数据库"); });
+        assertEquals(12, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+    }
+
+    @Test
+    public void testLastPageSkipsCount() {
+        Page<Integer> page = rowCountService.page(new SliceImpl<>(Arrays.asList(11, 12), PageRequest.of(2, 5), false),
+                PageRequest.of(2, 5), "news", () -> { throw new AssertionError("不应查询数据库"); });
+        assertEquals(12, page.getTotalElements());
+    }
+}
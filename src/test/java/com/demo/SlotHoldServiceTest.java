@@ -0,0 +1,117 @@
+package com.demo;
+
+import com.demo.entity.vo.SlotHold;
+import com.demo.exception.SlotConflictException;
+import com.demo.service.AvailabilityService;
+import com.demo.service.LotteryService;
+import com.demo.service.impl.SlotHoldServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+public class SlotHoldServiceTest {
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private LotteryService lotteryService;
+
+    @InjectMocks
+    private SlotHoldServiceImpl slotHoldService;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2).withHour(12).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(slotHoldService, "holdMinutes", 10);
+        ReflectionTestUtils.setField(slotHoldService, "maxPerUser", 2);
+        when(availabilityService.isFree(anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(true);
+        when(availabilityService.remaining(anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(1);
+    }
+
+    @Test
+    public void testHoldBlocksOthers() {
+        SlotHold hold = slotHoldService.hold("u1", 1, start, 2);
+
+        assertThrows(SlotConflictException.class, () -> slotHoldService.hold("u2", 1, start.plusHours(1), 1));
+        assertTrue(slotHoldService.isHeld(1, start.plusHours(1), 1, "u2"));
+        assertFalse(slotHoldService.isHeld(1, start, 2, "u1"));
+        assertFalse(slotHoldService.isHeld(2, start, 2, "u2"));
+        assertEquals(0b11 << 12, slotHoldService.heldHours(1, start.toLocalDate(), "u2"));
+        assertEquals(0, slotHoldService.heldHours(1, start.toLocalDate(), "u1"));
+
+        slotHoldService.release(hold.getHoldID(), "u1");
+        assertFalse(slotHoldService.isHeld(1, start, 2, "u2"));
+        slotHoldService.hold("u2", 1, start, 2);
+    }
+
+    @Test
+    public void testHoldWithCapacity() {
+        // 场馆还剩两块场地, 两个用户可以同时预留
+        when(availabilityService.remaining(anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(2);
+        slotHoldService.hold("u1", 1, start, 2);
+        assertFalse(slotHoldService.isHeld(1, start, 2, "u2"));
+        assertEquals(0, slotHoldService.heldHours(1, start.toLocalDate(), "u2"));
+        slotHoldService.hold("u2", 1, start.plusHours(1), 1);
+
+        assertThrows(SlotConflictException.class, () -> slotHoldService.hold("u3", 1, start.plusHours(1), 1));
+        assertTrue(slotHoldService.isHeld(1, start, 2, "u3"));
+        assertEquals(1 << 13, slotHoldService.heldHours(1, start.toLocalDate(), "u3"));
+        slotHoldService.hold("u3", 1, start, 1);
+    }
+
+    @Test
+    public void testHoldReplacesOwnAndLimit() {
+        SlotHold first = slotHoldService.hold("u1", 1, start, 2);
+        SlotHold second = slotHoldService.hold("u1", 1, start.plusHours(1), 2);
+
+        // 重叠的旧预留被替换, 不占用名额
+        assertThrows(SlotConflictException.class, () -> slotHoldService.take(first.getHoldID(), "u1"));
+        slotHoldService.hold("u1", 2, start, 1);
+        assertThrows(RuntimeException.class, () -> slotHoldService.hold("u1", 3, start, 1));
+        assertEquals(second, slotHoldService.take(second.getHoldID(), "u1"));
+    }
+
+    @Test
+    public void testTakeAndRestore() {
+        SlotHold hold = slotHoldService.hold("u1", 1, start, 2);
+
+        assertThrows(SlotConflictException.class, () -> slotHoldService.take(hold.getHoldID(), "u2"));
+        assertSame(hold, slotHoldService.take(hold.getHoldID(), "u1"));
+        assertThrows(SlotConflictException.class, () -> slotHoldService.take(hold.getHoldID(), "u1"));
+
+        slotHoldService.restore(hold);
+        assertTrue(slotHoldService.isHeld(1, start, 2, "u2"));
+    }
+
+    @Test
+    public void testExpire() {
+        ReflectionTestUtils.setField(slotHoldService, "holdMinutes", 0);
+        SlotHold hold = slotHoldService.hold("u1", 1, start, 2);
+
+        // 到期后其他用户可以直接预留
+        assertFalse(slotHoldService.isHeld(1, start, 2, "u2"));
+        slotHoldService.expire();
+        assertThrows(SlotConflictException.class, () -> slotHoldService.take(hold.getHoldID(), "u1"));
+        slotHoldService.hold("u2", 1, start, 2);
+    }
+
+    @Test
+    public void testBookedSlot() {
+        when(availabilityService.isFree(1, start, 2)).thenReturn(false);
+
+        assertThrows(SlotConflictException.class, () -> slotHoldService.hold("u1", 1, start, 2));
+    }
+}
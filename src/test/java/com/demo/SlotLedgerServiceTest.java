@@ -0,0 +1,93 @@
+package com.demo;
+
+import com.demo.dao.OrderSlotDao;
+import com.demo.dao.SlotUsageDao;
+import com.demo.entity.Order;
+import com.demo.entity.OrderSlot;
+import com.demo.exception.SlotConflictException;
+import com.demo.service.impl.SlotLedgerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SlotLedgerServiceTest {
+
+    @Mock
+    private OrderSlotDao orderSlotDao;
+
+    @Mock
+    private SlotUsageDao slotUsageDao;
+
+    @InjectMocks
+    private SlotLedgerServiceImpl slotLedgerService;
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 4, 16, 18, 0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testOccupyAllClaimsInKeyOrder() {
+        when(slotUsageDao.claim(anyInt(), any(LocalDateTime.class))).thenReturn(1);
+
+        slotLedgerService.occupyAll(Arrays.asList(new Order(8, "u1", 2, 1, start, start, 1, 80, null),
+                new Order(7, "u1", 1, 1, start, start.plusHours(1), 2, 200, null)));
+
+        // 每小时一条条件UPDATE, 容量在语句中取自场馆表, 按 (venueID, slot_start) 的顺序加锁
+        InOrder inOrder = inOrder(slotUsageDao, orderSlotDao);
+        inOrder.verify(slotUsageDao).ensureAll(anyList());
+        inOrder.verify(slotUsageDao).claim(1, start.plusHours(1));
+        inOrder.verify(slotUsageDao).claim(1, start.plusHours(2));
+        inOrder.verify(slotUsageDao).claim(2, start);
+        ArgumentCaptor<List<OrderSlot>> rows = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(orderSlotDao).insertAll(rows.capture());
+        assertEquals(3, rows.getValue().size());
+    }
+
+    @Test
+    public void testOccupyFullSlot() {
+        when(slotUsageDao.claim(1, start)).thenReturn(1);
+        when(slotUsageDao.claim(1, start.plusHours(1))).thenReturn(0);
+
+        assertThrows(SlotConflictException.class,
+                () -> slotLedgerService.occupy(new Order(7, "u1", 1, 1, start, start, 2, 200, null)));
+        verify(orderSlotDao, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void testTakenComparesInDatabase() {
+        when(slotUsageDao.findFullIn(1, Arrays.asList(start, start.plusHours(1)))).thenReturn(Collections.singletonList(start.plusHours(1)));
+        when(slotUsageDao.findFull(1, start, start.plusDays(1))).thenReturn(Collections.singletonList(start.plusHours(1)));
+
+        assertTrue(slotLedgerService.isTaken(1, start, 2));
+        assertFalse(slotLedgerService.isTaken(1, start.plusHours(2), 1));
+        assertEquals(Collections.singleton(start.plusHours(1)), slotLedgerService.findTaken(1, start, start.plusDays(1)));
+    }
+
+    @Test
+    public void testRelease() {
+        slotLedgerService.release(7);
+        InOrder inOrder = inOrder(slotUsageDao, orderSlotDao);
+        inOrder.verify(slotUsageDao).releaseOrders(Collections.singletonList(7));
+        inOrder.verify(orderSlotDao).deleteByOrderIDIn(Collections.singletonList(7));
+
+        slotLedgerService.releaseAll(Collections.emptyList());
+        verifyNoMoreInteractions(slotUsageDao, orderSlotDao);
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo;
+
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.SlotAlternative;
+import com.demo.service.AvailabilityService;
+import com.demo.service.impl.SlotSuggestionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class SlotSuggestionServiceTest {
+
+    @Mock
+    private VenueDao venueDao;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @InjectMocks
+    private SlotSuggestionServiceImpl slotSuggestionService;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2).withHour(12).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(venueDao.findAll()).thenReturn(Arrays.asList(
+                new Venue(1, "A", "", 100, "", "", "08:00", "20:00"),
+                new Venue(2, "B", "", 80, "", "", "08:00", "20:00"),
+                new Venue(3, "C", "", 50, "", "", "08:00", "20:00"),
+                new Venue(4, "D", "", 60, "", "", "08:00", "12:00")));
+        when(availabilityService.isFree(anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(true);
+        // A在11点到14点已被占用, C同一时段也被占用
+        when(availabilityService.isFree(eq(1), any(LocalDateTime.class), anyInt())).thenAnswer(invocation -> {
+            int hour = invocation.<LocalDateTime>getArgument(1).getHour();
+            return hour + invocation.<Integer>getArgument(2) <= 11 || hour >= 14;
+        });
+        when(availabilityService.isFree(3, start, 2)).thenReturn(false);
+    }
+
+    @Test
+    public void testSuggest() {
+        Order order = new Order();
+        order.setVenueID(1);
+        order.setStartTime(start);
+        order.setHours(2);
+
+        List<SlotAlternative> alternatives = slotSuggestionService.suggest(order, 2);
+        // 同场馆: 最近的是14点和9点; 其他场馆同一时段: 只有B(C被占, D已关门)
+        assertEquals(3, alternatives.size());
+        assertEquals(start.withHour(14), alternatives.get(0).getStartTime());
+        assertEquals(start.withHour(9), alternatives.get(1).getStartTime());
+        assertEquals(2, alternatives.get(2).getVenueID());
+        assertEquals(160, alternatives.get(2).getTotal());
+    }
+}
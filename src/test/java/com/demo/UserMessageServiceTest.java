@@ -7,6 +7,7 @@ import com.demo.entity.vo.MessageVo;
 import com.demo.exception.LoginException;
 import com.demo.service.MessageService;
 import com.demo.service.MessageVoService;
+import com.demo.service.impl.IdempotencyServiceImpl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -38,6 +39,9 @@ public class UserMessageServiceTest {
 
     @Mock(lenient = true)
     private MessageVoService messageVoService;
+
+    @Spy
+    private IdempotencyServiceImpl idempotencyService;
     //
     // @Autowired
     @InjectMocks
@@ -216,7 +220,7 @@ public class UserMessageServiceTest {
         MockHttpServletResponse response = new MockHttpServletResponse();
         //应该被拒绝，不创建message
         assertThrows(Exception.class, () -> {
-            messageController.sendMessage("user1","",response);
+            messageController.sendMessage("user1","",null,response);
         });
     }
 
@@ -242,7 +246,7 @@ public class UserMessageServiceTest {
         // 创建一个模拟的 HttpServletResponse 对象
         //发送了一个请求
         HttpServletResponse response = mock(HttpServletResponse.class);
-        messageController.sendMessage("user1","message",response);
+        messageController.sendMessage("user1","message",null,response);
         //通过。。验证是否运行了sendMessage但是没有检测功能这里只检测了这个函数有没有运行到底
         verify(response).sendRedirect("/message_list");
     }
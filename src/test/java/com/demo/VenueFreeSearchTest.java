@@ -0,0 +1,83 @@
+package com.demo;
+
+import com.demo.dao.VenueDao;
+import com.demo.entity.Venue;
+import com.demo.entity.vo.FreeVenue;
+import com.demo.service.AvailabilityService;
+import com.demo.service.impl.VenueServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class VenueFreeSearchTest {
+
+    @Mock
+    private VenueDao venueDao;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @InjectMocks
+    private VenueServiceImpl venueService;
+
+    private final LocalDate day = LocalDate.of(2024, 4, 20);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(venueDao.findAll()).thenReturn(Arrays.asList(
+                new Venue(1, "A", "", 100, "", "浦东新区", "08:00", "20:00"),
+                new Venue(2, "B", "", 50, "", "黄浦区", "08:00", "20:00"),
+                new Venue(3, "C", "", 80, "", "浦东新区", "08:00", "15:00"),
+                new Venue(4, "D", "", 60, "", "徐汇区", "08:00", "20:00")));
+        // B在14点到15点已被预约, D全天14点以后已被预约
+        Map<Integer, Integer> taken = new HashMap<>();
+        taken.put(2, 1 << 14);
+        taken.put(4, 0xFFC000);
+        when(availabilityService.takenHours(day)).thenReturn(taken);
+    }
+
+    @Test
+    public void testFindFreeInWindow() {
+        List<FreeVenue> free = venueService.findFree(day, 14, 16, 2, null, null);
+        // C 15点关门, B 14点被占, D 14点以后被占
+        assertEquals(1, free.size());
+        assertEquals(1, free.get(0).getVenue().getVenueID());
+        assertEquals(day.atTime(14, 0), free.get(0).getStartTime());
+        assertEquals(200, free.get(0).getTotal());
+    }
+
+    @Test
+    public void testFindFreeEarliestStartAndOrder() {
+        // 13点到17点之间找2小时: B从15点开始可约, C 13点开始可约, A 13点开始可约
+        List<FreeVenue> free = venueService.findFree(day, 13, 17, 2, null, null);
+        assertEquals(3, free.size());
+        assertEquals(2, free.get(0).getVenue().getVenueID());
+        assertEquals(day.atTime(15, 0), free.get(0).getStartTime());
+        assertEquals(3, free.get(1).getVenue().getVenueID());
+        assertEquals(1, free.get(2).getVenue().getVenueID());
+    }
+
+    @Test
+    public void testFindFreeFilters() {
+        List<FreeVenue> free = venueService.findFree(day, 8, 12, 2, 90, "浦东");
+        assertEquals(1, free.size());
+        assertEquals(3, free.get(0).getVenue().getVenueID());
+    }
+
+    @Test
+    public void testFindFreeInvalidWindow() {
+        assertThrows(RuntimeException.class, () -> venueService.findFree(day, 14, 15, 2, null, null));
+    }
+}
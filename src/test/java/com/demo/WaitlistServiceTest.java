@@ -0,0 +1,91 @@
+package com.demo;
+
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.WaitlistEntry;
+import com.demo.service.AvailabilityService;
+import com.demo.service.SlotHoldService;
+import com.demo.service.impl.WaitlistServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistDao waitlistDao;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private SlotHoldService slotHoldService;
+
+    @InjectMocks
+    private WaitlistServiceImpl waitlistService;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2).withHour(18).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        AtomicInteger ids = new AtomicInteger();
+        when(waitlistDao.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry entry = invocation.getArgument(0);
+            entry.setId(ids.incrementAndGet());
+            return entry;
+        });
+        when(availabilityService.isFree(anyInt(), any(LocalDateTime.class), anyInt())).thenReturn(false);
+    }
+
+    @Test
+    public void testCandidatesInJoinOrder() {
+        WaitlistEntry first = waitlistService.join("u1", 1, start.plusHours(1), 1);
+        WaitlistEntry second = waitlistService.join("u2", 1, start, 2);
+        waitlistService.join("u3", 1, start.plusHours(2), 1);
+        waitlistService.join("u4", 2, start, 2);
+
+        assertEquals(Arrays.asList(first, second), waitlistService.candidates(1, start, 2));
+        assertEquals(Collections.singletonList(second), waitlistService.candidates(1, start, 1));
+
+        waitlistService.promoted(first);
+        verify(waitlistDao).deleteById(first.getId());
+        assertEquals(Collections.singletonList(second), waitlistService.candidates(1, start, 2));
+    }
+
+    @Test
+    public void testJoinRejected() {
+        waitlistService.join("u1", 1, start, 2);
+
+        assertThrows(RuntimeException.class, () -> waitlistService.join("u1", 1, start.plusHours(1), 1));
+        assertThrows(RuntimeException.class, () -> waitlistService.join("u2", 1, start.minusDays(3), 1));
+        when(availabilityService.isFree(2, start, 1)).thenReturn(true);
+        assertThrows(RuntimeException.class, () -> waitlistService.join("u2", 2, start, 1));
+    }
+
+    @Test
+    public void testLoadAndPurge() {
+        List<WaitlistEntry> stored = Arrays.asList(
+                new WaitlistEntry(5, "u1", 1, start, 1, LocalDateTime.now()),
+                new WaitlistEntry(9, "u2", 1, start, 1, LocalDateTime.now()));
+        when(waitlistDao.findAllByStartTimeAfterOrderByIdAsc(any(LocalDateTime.class))).thenReturn(stored);
+        waitlistService.load();
+
+        assertEquals(stored, waitlistService.candidates(1, start, 1));
+        waitlistService.purge();
+        verify(waitlistDao).deleteByStartTimeBefore(any(LocalDateTime.class));
+        assertEquals(2, waitlistService.candidates(1, start, 1).size());
+    }
+}